@@ -0,0 +1,70 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import model.Component;
+import model.Course;
+import model.CourseSection;
+import model.Field;
+import model.TimeSlot;
+
+/**
+ * Seeded synthetic catalogs for the benchmarks, named by size.
+ */
+public class Catalogs {
+
+    /**
+     * Builds a catalog.
+     *
+     * @param size "small" (4 courses, 2 sections), "medium" (5 courses, 3 sections)
+     *             or "large" (6 courses, 4 sections)
+     * @return the courses, with course names and components filled in like {@code DataLoader}
+     */
+    public static List<Course> build(String size) {
+        switch (size) {
+            case "small":
+                return build(4, 2, 42);
+            case "medium":
+                return build(5, 3, 42);
+            case "large":
+                return build(6, 4, 42);
+            default:
+                throw new IllegalArgumentException("Unknown catalog size: " + size);
+        }
+    }
+
+    private static List<Course> build(int courseCount, int sectionCount, long seed) {
+        Random random = new Random(seed);
+        Field[] fields = Field.values();
+        List<Course> courses = new ArrayList<>();
+        for (int c = 0; c < courseCount; c++) {
+            Course course = new Course(fields[c % fields.length], 1000 + c);
+            for (int s = 0; s < sectionCount; s++) {
+                String name = course.getDisplayName() + (char) ('A' + s);
+                CourseSection section = new CourseSection(String.valueOf((char) ('A' + s)));
+                for (int i = 0; i < 2; i++) {
+                    section.addLecture(slot(random, name, Component.LEC));
+                }
+                for (int i = 0; i < 3; i++) {
+                    section.addLaboratory(slot(random, name, Component.LAB));
+                }
+                for (int i = 0; i < 3; i++) {
+                    section.addTutorial(slot(random, name, Component.TUT));
+                }
+                course.addSection(section);
+            }
+            courses.add(course);
+        }
+        return courses;
+    }
+
+    private static TimeSlot slot(Random random, String courseName, Component comp) {
+        int start = random.nextInt(9);
+        TimeSlot slot = new TimeSlot(start, random.nextInt(5), start < 8 && random.nextInt(4) == 0);
+        slot.setCourseName(courseName);
+        slot.setComp(comp);
+        return slot;
+    }
+}
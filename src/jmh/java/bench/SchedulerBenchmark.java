@@ -0,0 +1,107 @@
+package bench;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import logic.ScheduleGenerator;
+import logic.ScoringEngine;
+import logic.config.Config;
+import logic.config.ConfigLoader;
+import model.Course;
+import model.CourseSection;
+import model.TimeSlot;
+
+/**
+ * Throughput of the scheduling hot paths: option expansion, overlap checks,
+ * schedule generation and scoring, for several catalog sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SchedulerBenchmark {
+
+    @Param({"small", "medium", "large"})
+    public String catalog;
+
+    private List<Course> courses;
+    private List<CourseSection> sections;
+    private List<List<TimeSlot>> options;
+    private List<List<TimeSlot>> plainOptions;
+    private List<List<TimeSlot>> schedules;
+    private Config config;
+
+    @Setup
+    public void setUp() {
+        courses = Catalogs.build(catalog);
+        sections = new ArrayList<>();
+        options = new ArrayList<>();
+        for (Course course : courses) {
+            sections.addAll(course.getSections());
+            options.addAll(course.getOptions());
+        }
+        plainOptions = new ArrayList<>();
+        for (List<TimeSlot> option : options) {
+            plainOptions.add(new ArrayList<>(option));
+        }
+        schedules = ScheduleGenerator.generate(courses, false);
+        config = ConfigLoader.get();
+    }
+
+    @Benchmark
+    public void expandSectionOptions(Blackhole bh) {
+        for (CourseSection section : sections) {
+            bh.consume(section.getOptions());
+        }
+    }
+
+    /** Every pair of options, using the masks cached in their SlotLists. */
+    @Benchmark
+    public int checkOverlap() {
+        return countOverlaps(options);
+    }
+
+    /** Every pair of options as plain lists, computing masks on each check. */
+    @Benchmark
+    public int checkOverlapPlainLists() {
+        return countOverlaps(plainOptions);
+    }
+
+    @Benchmark
+    public List<List<TimeSlot>> generateSchedules() {
+        return ScheduleGenerator.generate(courses, false);
+    }
+
+    @Benchmark
+    public void scoreSchedules(Blackhole bh) {
+        for (List<TimeSlot> schedule : schedules) {
+            bh.consume(ScoringEngine.apply(schedule, config, false));
+        }
+    }
+
+    private static int countOverlaps(List<List<TimeSlot>> lists) {
+        int overlaps = 0;
+        for (List<TimeSlot> a : lists) {
+            for (List<TimeSlot> b : lists) {
+                if (TimeSlot.checkOverlap(a, b)) overlaps++;
+            }
+        }
+        return overlaps;
+    }
+}
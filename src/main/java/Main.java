@@ -1,14 +1,41 @@
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.io.File;
+import java.time.Duration;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import model.Course;
+import model.CourseKey;
 import model.TimeSlot;
 import output.Output;
+import input.BinaryCatalog;
 import input.DataLoader;
-import logic.ScoringEngine;
+import input.StreamingCourseLoader;
+import logic.AnytimeSearch;
+import logic.ArcConsistency;
+import logic.ConstrainedSearch;
+import logic.OccupancyScorer;
+import logic.OptionTable;
+import logic.ParetoFront;
+import logic.RankedSchedule;
+import logic.RankedScheduleIterator;
+import logic.ScheduleGenerator;
+import logic.ScheduleRanker;
+import logic.SymmetryReduction;
+import logic.config.Config;
+import logic.config.ConfigLoader;
+import metrics.Metrics;
+import metrics.Trace;
 
 /**
  * Main entry point for the course scheduling application.
@@ -22,6 +49,38 @@ import logic.ScoringEngine;
 public class Main {
 
     public static void main(String[] args) {
+        // --parallel: generate every schedule on all cores instead of searching lazily
+        boolean parallel = Arrays.asList(args).contains("--parallel");
+        // --symmetry: search over classes of equivalent options, expanding them on display
+        boolean symmetry = Arrays.asList(args).contains("--symmetry");
+        // --pareto: show one schedule per Pareto-optimal trade-off between the scoring factors
+        boolean pareto = Arrays.asList(args).contains("--pareto");
+        // --budget 200: spend at most this many milliseconds improving one good schedule
+        long budgetMillis;
+        // --select CSI2105,MAT1341: only load these courses from the catalog
+        Set<CourseKey> selected;
+        // --trace-phases combine,score and --trace-sample 100: what verbose mode traces
+        Set<Metrics.Phase> tracePhases;
+        int traceSample;
+        try {
+            budgetMillis = budgetMillis(args);
+            selected = selectedCourses(args);
+            tracePhases = tracePhases(args);
+            traceSample = traceSample(args);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Invalid arguments: " + e.getMessage());
+            return;
+        }
+        // --metrics metrics.json: expose counters over JMX and write them to the file at exit
+        int metrics = Arrays.asList(args).indexOf("--metrics");
+        if (metrics >= 0 && metrics + 1 < args.length) {
+            Metrics.registerMBean();
+            Metrics.dumpAtExit(args[metrics + 1]);
+        }
+        // --trace trace.jsonl: where verbose mode writes its trace (see tracePhases and traceSample)
+        int trace = Arrays.asList(args).indexOf("--trace");
+        String tracePath = trace >= 0 && trace + 1 < args.length ? args[trace + 1] : "trace.jsonl";
+
         List<Course> courses = null;
         Scanner scanner = new Scanner(System.in);
 
@@ -37,21 +96,26 @@ public class Main {
 
             // Attempt to load courses from the given path
             try {
-                courses = new DataLoader(filepath).loadCourses();
+                courses = loadCourses(filepath, selected);
             } catch (FileNotFoundException e) {
                 // Fallback to test resources folder
                 String fallback = "src/test/resources/" + filepath;
                 try {
-                    courses = new DataLoader(fallback).loadCourses();
+                    courses = loadCourses(fallback, selected);
                 } catch (FileNotFoundException e2) {
                     System.out.println("File not found at either path: " + filepath + " or " + fallback);
                 } catch (IOException e2) {
                     System.out.println("Error reading file at fallback path: " + e2.getMessage());
+                } catch (IllegalArgumentException e2) {
+                    // A selected course the catalog does not contain
+                    System.out.println(e2.getMessage());
                 } catch (Exception e2) {
                     System.out.println("Unexpected error at fallback path: " + e2.getMessage());
                 }
             } catch (IOException e) {
                 System.out.println("Error reading file: " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
             } catch (Exception e) {
                 System.out.println("Unexpected error: " + e.getMessage());
             }
@@ -62,81 +126,93 @@ public class Main {
         final boolean verbose = scanner.nextLine().trim().equalsIgnoreCase("y");
 
         if (verbose) {
-            System.out.println("\nVerbose mode enabled.");
+            Trace.start(tracePath, tracePhases, traceSample, Trace.DEFAULT_CAPACITY);
+            System.out.println("\nVerbose mode enabled, tracing to " + tracePath + ".");
             System.out.println("Loaded " + courses.size() + " courses:");
             for (Course c : courses) {
                 System.out.println("  - " + c);
             }
         }
 
-        // --- Step 3: Generate all non-overlapping scheduling options ---
-        List<List<TimeSlot>> options = new ArrayList<>();
-
-        for (Course c : courses) {
-            List<List<TimeSlot>> courseOptions = c.getOptions();
-
-            if (verbose) {
-                System.out.println("\nCourse: " + c.getDisplayName());
-                System.out.println("Number of scheduling options: " + courseOptions.size());
+        // --- Steps 3 & 4: Generate and rank non-overlapping scheduling options ---
+        Iterator<List<TimeSlot>> ranked;
+        Config config = ConfigLoader.get();
+        if (verbose) {
+            OptionTable table = new OptionTable(courses);
+            System.out.println("\n" + ArcConsistency.reduce(table).report());
+            try {
+                List<List<TimeSlot>> options = ScheduleGenerator.generate(courses, verbose);
+                System.out.println("\nScoring all scheduling options...");
+                ranked = ScheduleRanker.rank(options, config, verbose).iterator();
+                System.out.println("\nDisplaying ranked schedule options...");
+            } catch (IllegalStateException e) {
+                explainInfeasible(table);
+                ranked = Collections.emptyIterator();
             }
-
-            List<List<TimeSlot>> newOptions = new ArrayList<>();
-
-            if (options.isEmpty()) {
-                // No previous options: use current course options as base
-                options = courseOptions;
-                if (verbose) System.out.println("No existing options, using current course options as base.");
+        } else if (pareto) {
+            OptionTable table = new OptionTable(courses);
+            ArcConsistency reduction = ArcConsistency.reduce(table);
+            List<ParetoFront.Tradeoff> tradeoffs = reduction.isInfeasible()
+                    ? List.of()
+                    : new ParetoFront(reduction.getTable(), config, 1).compute();
+            if (tradeoffs.isEmpty()) {
+                explainInfeasible(table);
             } else {
-                // Combine new course options with existing schedules
-                for (List<TimeSlot> op : courseOptions) {
-                    if (verbose) System.out.println("Checking course option: " + op);
-
-                    for (List<TimeSlot> curr : options) {
-                        boolean overlap = TimeSlot.checkOverlap(curr, op);
-
-                        if (verbose) {
-                            System.out.println("Comparing with existing schedule: " + curr);
-                            System.out.println("Overlap? " + overlap);
-                        }
-
-                        if (!overlap) {
-                            List<TimeSlot> combined = new ArrayList<>(curr);
-                            combined.addAll(op);
-                            newOptions.add(combined);
-
-                            if (verbose) {
-                                System.out.println("    Added new valid schedule combination: " + combined);
-                            }
-                        }
-                    }
+                System.out.println("\nPareto-optimal trade-offs (points per factor):");
+                for (int i = 0; i < tradeoffs.size(); i++) {
+                    System.out.println("  " + (i + 1) + ". " + tradeoffs.get(i));
                 }
             }
-
-            // Update the master list if new combinations were found
-            if (!newOptions.isEmpty()) {
-                options = newOptions;
+            ranked = tradeoffs.stream()
+                    .map(tradeoff -> (List<TimeSlot>) tradeoff.getSchedules().get(0).getSchedule())
+                    .iterator();
+        } else if (budgetMillis >= 0) {
+            // Local search from a greedy schedule, stopped when the budget expires; nothing
+            // unbounded runs before it, not even an explanation when nothing is found
+            RankedSchedule best = AnytimeSearch.best(courses, Duration.ofMillis(budgetMillis), config);
+            if (best == null) {
+                System.out.println("No valid non-overlapping schedules could be generated.");
+                ranked = Collections.emptyIterator();
+            } else {
+                System.out.println("\nBest schedule found within " + budgetMillis + " ms (score " + best.getScore() + "):");
+                ranked = List.<List<TimeSlot>>of(best.getSchedule()).iterator();
             }
-
-            // If no non-overlapping options exist, error
-            if (newOptions.isEmpty() && !options.equals(courseOptions)) {
-                throw new Error("No valid non-overlapping schedules could be generated for course: " + c.getDisplayName());
+        } else if (parallel) {
+            // Exhaustive generation split across all cores
+            try {
+                List<List<TimeSlot>> options = ScheduleGenerator.generateParallel(courses, ForkJoinPool.commonPool());
+                ranked = ScheduleRanker.rank(options, config, false).iterator();
+            } catch (IllegalStateException e) {
+                explainInfeasible(new OptionTable(courses));
+                ranked = Collections.emptyIterator();
+            }
+        } else {
+            // Best-first search over the options left after constraint propagation:
+            // each option is only computed once the user asks for it
+            OptionTable table = new OptionTable(courses);
+            ArcConsistency reduction = ArcConsistency.reduce(table);
+            OccupancyScorer scorer = OccupancyScorer.forConfig(config);
+            Iterator<RankedSchedule> search;
+            if (reduction.isInfeasible()) {
+                search = Collections.emptyIterator();
+            } else if (symmetry) {
+                SymmetryReduction symmetries = SymmetryReduction.of(reduction.getTable());
+                System.out.println("\n" + symmetries.report());
+                search = symmetries.ranked(scorer);
+            } else {
+                search = new RankedScheduleIterator(reduction.getTable(), scorer);
+            }
+            ranked = schedulesOf(search);
+            if (!ranked.hasNext()) {
+                explainInfeasible(table);
             }
         }
 
-        // --- Step 4: Rank all options using scoring engine ---
-        if (verbose) System.out.println("\nScoring all scheduling options...");
-        options.sort((o1, o2) -> Integer.compare(
-                ScoringEngine.apply(o2, verbose), // higher score first
-                ScoringEngine.apply(o1, verbose)
-        ));
-
-        if (verbose) System.out.println("\nDisplaying ranked schedule options...");
-
         // --- Step 5: Display options interactively ---
         int index = 1;
-        for (List<TimeSlot> schedule : options) {
+        while (ranked.hasNext()) {
             System.out.println("\nOption " + index++);
-            Output.displaySchedule(schedule);
+            Output.displaySchedule(ranked.next());
 
             System.out.print("Press Enter to continue, or type 'exit' to quit: ");
             String input = scanner.nextLine().trim();
@@ -147,5 +223,175 @@ public class Main {
         }
 
         scanner.close();
+        Trace.stop();
+    }
+
+    /**
+     * Reports that no schedule exists. Unless there are too many courses, the
+     * most-constrained-first search, which proves quickly that none does, names the courses
+     * in conflict.
+     *
+     * @param table the expanded options of every course, before any reduction
+     */
+    private static void explainInfeasible(OptionTable table) {
+        System.out.println("No valid non-overlapping schedules could be generated.");
+        if (table.courseCount() > ConstrainedSearch.MAX_COURSES) {
+            return;
+        }
+        ConstrainedSearch.Result result = new ConstrainedSearch(table).solve();
+        if (!result.getConflictingCourses().isEmpty()) {
+            StringBuilder names = new StringBuilder();
+            for (Course c : result.getConflictingCourses()) {
+                if (names.length() > 0) names.append(", ");
+                names.append(c.getDisplayName());
+            }
+            System.out.println("These courses cannot be taken together: " + names);
+        }
+    }
+
+    /**
+     * Parses the course list following {@code --select}, or returns null to load every course.
+     *
+     * @throws IllegalArgumentException if the list is missing or names an invalid course
+     */
+    private static Set<CourseKey> selectedCourses(String[] args) {
+        int i = Arrays.asList(args).indexOf("--select");
+        if (i < 0) {
+            return null;
+        }
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException("--select needs a list of courses, e.g. CSI2105,MAT1341.");
+        }
+        Set<CourseKey> keys = new LinkedHashSet<>();
+        for (String name : args[i + 1].split(",")) {
+            if (!name.isBlank()) {
+                keys.add(CourseKey.parse(name));
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Parses the number of milliseconds following {@code --budget}, or returns -1 without one.
+     *
+     * @throws IllegalArgumentException if the value is missing, not a number or negative
+     */
+    private static long budgetMillis(String[] args) {
+        int i = Arrays.asList(args).indexOf("--budget");
+        if (i < 0) {
+            return -1;
+        }
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException("--budget needs a number of milliseconds.");
+        }
+        long millis;
+        try {
+            millis = Long.parseLong(args[i + 1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--budget needs a number of milliseconds, not " + args[i + 1] + ".");
+        }
+        if (millis < 0) {
+            throw new IllegalArgumentException("--budget cannot be negative.");
+        }
+        return millis;
+    }
+
+    /**
+     * Parses the phases following {@code --trace-phases} (e.g. {@code combine,score}), or returns every phase.
+     *
+     * @throws IllegalArgumentException if the list is missing or names an unknown phase
+     */
+    private static Set<Metrics.Phase> tracePhases(String[] args) {
+        int i = Arrays.asList(args).indexOf("--trace-phases");
+        if (i < 0) {
+            return EnumSet.allOf(Metrics.Phase.class);
+        }
+        String valid = Arrays.stream(Metrics.Phase.values())
+                .map(phase -> phase.name().toLowerCase())
+                .collect(Collectors.joining(", "));
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException("--trace-phases needs a list of phases among " + valid + ".");
+        }
+        Set<Metrics.Phase> phases = EnumSet.noneOf(Metrics.Phase.class);
+        for (String name : args[i + 1].split(",")) {
+            if (!name.isBlank()) {
+                try {
+                    phases.add(Metrics.Phase.valueOf(name.trim().toUpperCase()));
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException(
+                            "Unknown phase " + name.trim() + ", expected one of " + valid + ".");
+                }
+            }
+        }
+        return phases;
+    }
+
+    /**
+     * Parses the number following {@code --trace-sample}: keep one event in that many, 1 without one.
+     *
+     * @throws IllegalArgumentException if the value is missing, not a number or less than 1
+     */
+    private static int traceSample(String[] args) {
+        int i = Arrays.asList(args).indexOf("--trace-sample");
+        if (i < 0) {
+            return 1;
+        }
+        if (i + 1 >= args.length) {
+            throw new IllegalArgumentException("--trace-sample needs a number of events.");
+        }
+        int sample;
+        try {
+            sample = Integer.parseInt(args[i + 1]);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("--trace-sample needs a number of events, not " + args[i + 1] + ".");
+        }
+        if (sample < 1) {
+            throw new IllegalArgumentException("--trace-sample must be at least 1.");
+        }
+        return sample;
+    }
+
+    /**
+     * Loads every course of a catalog, or only the selected ones if a selection was given.
+     *
+     * @throws IllegalArgumentException if a selected course is not in the catalog
+     */
+    private static List<Course> loadCourses(String filepath, Set<CourseKey> selected) throws IOException {
+        if (selected == null) {
+            return new DataLoader(filepath).loadCourses();
+        }
+        if (new File(filepath).isFile() && BinaryCatalog.isBinaryCatalog(filepath)) {
+            try (BinaryCatalog catalog = BinaryCatalog.open(filepath)) {
+                // Decode in catalog order, as the JSON loader returns them
+                List<Course> courses = new ArrayList<>();
+                selected.stream()
+                        .mapToInt(key -> {
+                            int index = catalog.indexOf(key.getField(), key.getCode());
+                            if (index < 0) {
+                                throw new IllegalArgumentException("Course not found: " + key);
+                            }
+                            return index;
+                        })
+                        .sorted()
+                        .forEach(index -> courses.add(catalog.getCourse(index)));
+                return courses;
+            }
+        }
+        return new StreamingCourseLoader(filepath).loadCourses(selected);
+    }
+
+    /** Adapts an iterator of ranked schedules to the schedules themselves. */
+    private static Iterator<List<TimeSlot>> schedulesOf(Iterator<RankedSchedule> ranked) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return ranked.hasNext();
+            }
+
+            @Override
+            public List<TimeSlot> next() {
+                return ranked.next().getSchedule();
+            }
+        };
     }
 }
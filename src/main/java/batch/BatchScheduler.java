@@ -0,0 +1,382 @@
+package batch;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import input.CourseCatalog;
+import input.ScheduleRequest;
+import logic.OccupancyScorer;
+import logic.OptionCache;
+import logic.OptionTable;
+import logic.RankedSchedule;
+import logic.ScheduleSearch;
+import logic.config.Config;
+import logic.config.ConfigLoader;
+import metrics.Metrics;
+import model.Course;
+import output.JsonOutput;
+import output.ScheduleExporter;
+
+/**
+ * Ranks schedules for a whole cohort of students against one catalog, without prompts.
+ *
+ * <p>Reads one {@link ScheduleRequest} per line (JSON Lines) and writes one result per line,
+ * in the same order:
+ * <pre>
+ * {"id": "s1", "courses": ["CSI2105", "MAT1341"], "count": 10, "schedules": [...]}
+ * {"id": "s2", "error": "Course not found: CSI9999"}
+ * </pre>
+ * Students are scheduled in parallel. Each course's options are expanded once into an
+ * {@link OptionCache} and shared by every student taking it, and results are written as
+ * soon as all earlier lines are done, so only a bounded window of students is held in memory.
+ *
+ * <p>With an export format (see {@link #setExport}), results are rendered by a
+ * {@link ScheduleExporter} instead: text and HTML go to the output as one document with a
+ * section per student, and iCalendar files are written to a directory, one per schedule,
+ * while the output lists them as {@code {"id": "s1", "files": ["1-s1-1.ics", ...]}}, named
+ * after the request's line number, its id and the schedule's rank.
+ */
+public class BatchScheduler {
+
+    /** Options cached by default, enough for the popular courses of a large catalog. */
+    public static final long DEFAULT_CACHED_OPTIONS = 1L << 20;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final CourseCatalog catalog;
+    private final Config defaults;
+    private final int threads;
+
+    /** Expanded options of the courses requested so far. */
+    private final OptionCache options;
+    /**
+     * Each worker's last scorer, since students often share their weights. One per thread keeps
+     * memory bounded however many configurations the cohort uses.
+     */
+    private final ThreadLocal<OccupancyScorer> scorers = new ThreadLocal<>();
+
+    /** Export format, or null for JSON; one exporter and buffer per worker thread. */
+    private Supplier<ScheduleExporter> exporters;
+    private ThreadLocal<ScheduleExporter> exporter;
+    private final ThreadLocal<StringBuilder> buffers = ThreadLocal.withInitial(() -> new StringBuilder(1 << 14));
+    private Path calendarDirectory;
+
+    private long students;
+    private long errors;
+    private long elapsedNanos;
+
+    /**
+     * @param catalog  the courses students can request
+     * @param defaults configuration for the weights a student does not override
+     * @param threads  number of students scheduled at once
+     */
+    public BatchScheduler(CourseCatalog catalog, Config defaults, int threads) {
+        this(catalog, defaults, threads, new OptionCache(DEFAULT_CACHED_OPTIONS));
+    }
+
+    /**
+     * @param catalog  the courses students can request
+     * @param defaults configuration for the weights a student does not override
+     * @param threads  number of students scheduled at once
+     * @param options  cache of expanded options, possibly shared with other users of the catalog
+     */
+    public BatchScheduler(CourseCatalog catalog, Config defaults, int threads, OptionCache options) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Need at least one thread.");
+        }
+        this.catalog = catalog;
+        this.defaults = defaults;
+        this.threads = threads;
+        this.options = options;
+    }
+
+    /**
+     * Renders results with an export format instead of JSON.
+     *
+     * @param exporters         creates the exporter of each worker thread
+     * @param calendarDirectory where to write one file per schedule, for iCalendar; null to write
+     *                          one document to the output
+     */
+    public void setExport(Supplier<ScheduleExporter> exporters, Path calendarDirectory) {
+        this.exporters = exporters;
+        this.exporter = ThreadLocal.withInitial(exporters);
+        this.calendarDirectory = calendarDirectory;
+    }
+
+    /** Whether results are a document rendered by the exporter rather than JSON Lines. */
+    private boolean document() {
+        return exporters != null && calendarDirectory == null;
+    }
+
+    /**
+     * Schedules every request and writes the results.
+     *
+     * @param in  JSON Lines requests; blank lines are skipped
+     * @param out where the JSON Lines results are written
+     * @throws IOException if reading or writing fails
+     */
+    public void run(Reader in, OutputStream out) throws IOException {
+        students = 0;
+        errors = 0;
+        long start = System.nanoTime();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        // Results not yet written, in input order; bounded so that reading cannot run far ahead
+        ArrayDeque<CompletableFuture<Result>> pending = new ArrayDeque<>();
+        int window = threads * 4;
+        try (BufferedReader reader = new BufferedReader(in)) {
+            if (document()) {
+                StringBuilder header = new StringBuilder();
+                exporters.get().header(header);
+                out.write(header.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            String line;
+            long lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+
+                String text = line;
+                long number = lineNumber;
+                pending.add(CompletableFuture.supplyAsync(() -> schedule(text, number), pool));
+                if (pending.size() >= window) {
+                    write(pending.poll().join(), out);
+                }
+            }
+            while (!pending.isEmpty()) {
+                write(pending.poll().join(), out);
+            }
+            if (document()) {
+                StringBuilder footer = new StringBuilder();
+                exporters.get().footer(footer);
+                out.write(footer.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            out.flush();
+        } finally {
+            pool.shutdownNow();
+        }
+
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    private void write(Result result, OutputStream out) throws IOException {
+        students++;
+        if (result.error) errors++;
+        out.write(result.line);
+        if (!document()) out.write('\n');
+    }
+
+    /** Schedules one student and serializes the result, so that writing stays cheap. */
+    private Result schedule(String line, long lineNumber) {
+        String id = String.valueOf(lineNumber);
+        try {
+            ScheduleRequest request = ScheduleRequest.fromJson(mapper.readTree(line), defaults);
+            if (request.getId() != null) {
+                id = request.getId();
+            }
+            List<Course> courses = catalog.select(request.getCourses());
+            OptionTable table = options.table(catalog.getVersion(), courses);
+            OccupancyScorer scorer = scorer(request.getConfig());
+            List<RankedSchedule> best = ScheduleSearch.topK(table, request.getK(), scorer);
+            if (exporters != null) {
+                return export(id, lineNumber, best);
+            }
+
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (JsonGenerator gen = mapper.getFactory().createGenerator(buffer)) {
+                gen.writeStartObject();
+                gen.writeStringField("id", id);
+                gen.writeArrayFieldStart("courses");
+                for (Course course : courses) {
+                    gen.writeString(course.getDisplayName());
+                }
+                gen.writeEndArray();
+                gen.writeNumberField("count", best.size());
+                JsonOutput.writeSchedules(gen, "schedules", best);
+                gen.writeEndObject();
+            }
+            return new Result(buffer.toByteArray(), false);
+        } catch (JsonProcessingException e) {
+            return error(id, e.getOriginalMessage());
+        } catch (IOException | RuntimeException e) {
+            return error(id, e.getMessage());
+        }
+    }
+
+    /** The thread's scorer for a configuration, rebuilt only when the configuration changes. */
+    private OccupancyScorer scorer(Config config) {
+        OccupancyScorer scorer = scorers.get();
+        if (scorer == null || !scorer.getConfig().equals(config)) {
+            scorer = OccupancyScorer.forConfig(config);
+            scorers.set(scorer);
+        }
+        return scorer;
+    }
+
+    /** Renders one student's schedules with the thread's exporter. */
+    private Result export(String id, long lineNumber, List<RankedSchedule> best) throws IOException {
+        ScheduleExporter exporter = this.exporter.get();
+        StringBuilder buffer = buffers.get();
+        buffer.setLength(0);
+        if (document()) {
+            exporter.section(buffer, id);
+            for (int i = 0; i < best.size(); i++) {
+                exporter.schedule(buffer, i + 1, best.get(i));
+            }
+            return new Result(buffer.toString().getBytes(StandardCharsets.UTF_8), false);
+        }
+
+        // One calendar per file, listed in the output. Ids need not be unique, nor stay
+        // distinct once made safe for file names, so the line number leads the name.
+        exporter.section(buffer, id);
+        String prefix = lineNumber + "-" + id.replaceAll("[^A-Za-z0-9._-]", "_");
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(line)) {
+            gen.writeStartObject();
+            gen.writeStringField("id", id);
+            gen.writeArrayFieldStart("files");
+            for (int i = 0; i < best.size(); i++) {
+                buffer.setLength(0);
+                exporter.schedule(buffer, i + 1, best.get(i));
+                String file = prefix + "-" + (i + 1) + "." + exporter.extension();
+                Files.writeString(calendarDirectory.resolve(file), buffer, StandardCharsets.UTF_8);
+                gen.writeString(file);
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        }
+        return new Result(line.toByteArray(), false);
+    }
+
+    private Result error(String id, String message) {
+        if (document()) {
+            StringBuilder buffer = buffers.get();
+            buffer.setLength(0);
+            exporter.get().section(buffer, id);
+            exporter.get().error(buffer, message);
+            return new Result(buffer.toString().getBytes(StandardCharsets.UTF_8), true);
+        }
+        try {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+            try (JsonGenerator gen = mapper.getFactory().createGenerator(buffer)) {
+                gen.writeStartObject();
+                gen.writeStringField("id", id);
+                gen.writeStringField("error", message);
+                gen.writeEndObject();
+            }
+            return new Result(buffer.toByteArray(), true);
+        } catch (IOException e) {
+            throw new IllegalStateException("Writing to memory failed.", e);
+        }
+    }
+
+    /** Number of requests handled by the last run. */
+    public long getStudents() {
+        return students;
+    }
+
+    /** Number of requests of the last run that could not be scheduled. */
+    public long getErrors() {
+        return errors;
+    }
+
+    public OptionCache getOptionCache() {
+        return options;
+    }
+
+    /**
+     * Describes the throughput of the last run.
+     *
+     * @return a two-line report
+     */
+    public String report() {
+        double seconds = elapsedNanos / 1e9;
+        return String.format("Scheduled %d students (%d errors) in %.2f s: %.1f students/s%n%s",
+                students, errors, seconds, seconds > 0 ? students / seconds : 0.0, options.report());
+    }
+
+    private static final class Result {
+        final byte[] line;
+        final boolean error;
+
+        Result(byte[] line, boolean error) {
+            this.line = line;
+            this.error = error;
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length < 3) {
+            System.out.println("Usage: BatchScheduler CATALOG REQUESTS OUTPUT [--threads N] [--config PATH] [--metrics PATH]"
+                    + " [--format json|text|html|ics] [--term-start YYYY-MM-DD] [--weeks N]");
+            return;
+        }
+        try {
+            int threads = Runtime.getRuntime().availableProcessors();
+            String configPath = ConfigLoader.DEFAULT_PATH;
+            String format = "json";
+            LocalDate termStart = LocalDate.now();
+            int weeks = 12;
+            for (int i = 3; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--threads" -> threads = Integer.parseInt(args[++i]);
+                    case "--config" -> configPath = args[++i];
+                    case "--metrics" -> {
+                        Metrics.registerMBean();
+                        Metrics.dumpAtExit(args[++i]);
+                    }
+                    case "--format" -> format = args[++i];
+                    case "--term-start" -> termStart = LocalDate.parse(args[++i]);
+                    case "--weeks" -> weeks = Integer.parseInt(args[++i]);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+
+            BatchScheduler batch = new BatchScheduler(CourseCatalog.load(args[0]), ConfigLoader.load(configPath), threads);
+            Path output = Paths.get(args[2]);
+            if (!format.equals("json")) {
+                String name = format;
+                LocalDate start = termStart;
+                int count = weeks;
+                // Fails here on an unknown format rather than once per student
+                ScheduleExporter.forFormat(name, start, count);
+                if (name.equals("ics")) {
+                    // OUTPUT is a directory of calendars, listed in its index
+                    Files.createDirectories(output);
+                    batch.setExport(() -> ScheduleExporter.forFormat(name, start, count), output);
+                    output = output.resolve("index.jsonl");
+                } else {
+                    batch.setExport(() -> ScheduleExporter.forFormat(name, start, count), null);
+                }
+            }
+            try (Reader in = Files.newBufferedReader(Paths.get(args[1]), StandardCharsets.UTF_8);
+                 OutputStream out = new BufferedOutputStream(Files.newOutputStream(output), 1 << 16)) {
+                batch.run(in, out);
+            }
+            System.out.println(batch.report());
+        } catch (IOException e) {
+            System.out.println("Error running batch: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("Invalid arguments: " + e.getMessage());
+        }
+    }
+}
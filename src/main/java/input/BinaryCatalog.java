@@ -0,0 +1,405 @@
+package input;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import model.Component;
+import model.Course;
+import model.CourseSection;
+import model.Field;
+import model.TimeSlot;
+
+/**
+ * Compact binary course catalog, read through a memory-mapped file.
+ *
+ * <p>Opening a catalog only maps the file; each course is decoded when it is requested, so
+ * startup cost does not grow with the catalog. All records are fixed-width and big-endian:
+ * <pre>
+ * header      magic "CSCB", version, course count, section count, string count (ints),
+ *             reserved int, section table, slot table and string table offsets (longs)
+ * courses     per course: field ordinal (byte), reserved (byte), code (short),
+ *             section count (int), first section (int), reserved (int)        16 bytes
+ * keys        per course, sorted by key: field ordinal * 10000 + code (int),
+ *             course index (int)                                               8 bytes
+ * sections    per section: name string (int), course name string (int),
+ *             first slot (int), lecture, lab and tutorial counts (unsigned shorts),
+ *             reserved (short)                                                20 bytes
+ * slots       per slot: extended (bit 7), day (bits 4-6), start time (bits 0-3)  1 byte
+ * strings     string offsets (ints), then each string as a length (unsigned short) and UTF-8 bytes
+ * </pre>
+ * Section and course names ({@code "A"}, {@code "CSI2105A"}) are interned in the string
+ * table, and every slot of a section shares the same decoded course name.
+ *
+ * <p>Reads only use absolute positions, so one open catalog can be shared by many threads.
+ */
+public class BinaryCatalog implements AutoCloseable {
+
+    private static final int MAGIC = 0x43534342; // "CSCB"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 48;
+    private static final int COURSE_SIZE = 16;
+    private static final int KEY_SIZE = 8;
+    private static final int SECTION_SIZE = 20;
+    /** Largest slot count per component of a section, and largest string length in bytes. */
+    private static final int MAX_UNSIGNED_SHORT = 0xFFFF;
+
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int courseCount;
+    private final long sectionsOffset;
+    private final long slotsOffset;
+    private final long stringsOffset;
+    /** Decoded strings, filled on first use; a racing duplicate decode is harmless. */
+    private final String[] strings;
+
+    private BinaryCatalog(FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a binary course catalog.");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported binary catalog version: " + buffer.getInt(4));
+        }
+        courseCount = buffer.getInt(8);
+        strings = new String[buffer.getInt(16)];
+        sectionsOffset = buffer.getLong(24);
+        slotsOffset = buffer.getLong(32);
+        stringsOffset = buffer.getLong(40);
+    }
+
+    /**
+     * Memory-maps a binary catalog.
+     *
+     * @param filePath path of a file written by {@link #write}
+     * @return the open catalog
+     * @throws IOException if the file cannot be mapped or is not a binary catalog
+     */
+    public static BinaryCatalog open(String filePath) throws IOException {
+        FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Binary catalog too large to map: " + channel.size() + " bytes");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            return new BinaryCatalog(channel, buffer);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks whether a file starts with the binary catalog magic number.
+     *
+     * @param filePath the file to check
+     * @return true if it is a binary catalog
+     * @throws IOException if the file cannot be read
+     */
+    public static boolean isBinaryCatalog(String filePath) throws IOException {
+        try (FileChannel channel = FileChannel.open(Path.of(filePath), StandardOpenOption.READ)) {
+            ByteBuffer head = ByteBuffer.allocate(4);
+            return channel.read(head, 0) == 4 && head.getInt(0) == MAGIC;
+        }
+    }
+
+    /** Number of courses in the catalog. */
+    public int size() {
+        return courseCount;
+    }
+
+    /**
+     * Decodes one course.
+     *
+     * @param index the course index, in the order the catalog was written
+     * @return the course, with course names and components filled in like {@link DataLoader}
+     */
+    public Course getCourse(int index) {
+        if (index < 0 || index >= courseCount) {
+            throw new IndexOutOfBoundsException("Course index " + index + " out of " + courseCount);
+        }
+        int at = HEADER_SIZE + index * COURSE_SIZE;
+        Field field = Field.values()[buffer.get(at)];
+        int code = buffer.getShort(at + 2);
+        int sectionCount = buffer.getInt(at + 4);
+        int firstSection = buffer.getInt(at + 8);
+
+        List<CourseSection> sections = new ArrayList<>(sectionCount);
+        for (int s = 0; s < sectionCount; s++) {
+            sections.add(readSection(firstSection + s));
+        }
+        return new Course(field, code, sections);
+    }
+
+    /**
+     * Finds a course by field and code with a binary search over the key table.
+     *
+     * @return the decoded course, or null if the catalog does not contain it
+     */
+    public Course findCourse(Field field, int code) {
+        int index = indexOf(field, code);
+        return index < 0 ? null : getCourse(index);
+    }
+
+    /**
+     * Returns the index of a course, or -1 if the catalog does not contain it.
+     */
+    public int indexOf(Field field, int code) {
+        int key = key(field, code);
+        int keysAt = HEADER_SIZE + courseCount * COURSE_SIZE;
+        int lo = 0;
+        int hi = courseCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int midKey = buffer.getInt(keysAt + mid * KEY_SIZE);
+            if (midKey < key) {
+                lo = mid + 1;
+            } else if (midKey > key) {
+                hi = mid - 1;
+            } else {
+                return buffer.getInt(keysAt + mid * KEY_SIZE + 4);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Returns every course as a list that decodes each course when it is accessed.
+     */
+    public List<Course> courses() {
+        return new AbstractList<>() {
+            @Override
+            public Course get(int index) {
+                return getCourse(index);
+            }
+
+            @Override
+            public int size() {
+                return courseCount;
+            }
+        };
+    }
+
+    /** Decodes every course. */
+    public List<Course> loadCourses() {
+        return new ArrayList<>(courses());
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private CourseSection readSection(int index) {
+        int at = (int) sectionsOffset + index * SECTION_SIZE;
+        String name = string(buffer.getInt(at));
+        String courseName = string(buffer.getInt(at + 4));
+        int slot = buffer.getInt(at + 8);
+        int lectures = buffer.getShort(at + 12) & 0xFFFF;
+        int labs = buffer.getShort(at + 14) & 0xFFFF;
+        int tutorials = buffer.getShort(at + 16) & 0xFFFF;
+
+        CourseSection section = new CourseSection(name);
+        for (int i = 0; i < lectures; i++) {
+            section.addLecture(readSlot(slot++, courseName, Component.LEC));
+        }
+        for (int i = 0; i < labs; i++) {
+            section.addLaboratory(readSlot(slot++, courseName, Component.LAB));
+        }
+        for (int i = 0; i < tutorials; i++) {
+            section.addTutorial(readSlot(slot++, courseName, Component.TUT));
+        }
+        return section;
+    }
+
+    private TimeSlot readSlot(int index, String courseName, Component comp) {
+        int bits = buffer.get((int) slotsOffset + index) & 0xFF;
+        TimeSlot slot = new TimeSlot(bits & 0x0F, (bits >>> 4) & 0x07, (bits & 0x80) != 0);
+        slot.setCourseName(courseName);
+        slot.setComp(comp);
+        return slot;
+    }
+
+    private String string(int index) {
+        String s = strings[index];
+        if (s == null) {
+            int at = buffer.getInt((int) stringsOffset + index * 4);
+            byte[] bytes = new byte[buffer.getShort(at) & 0xFFFF];
+            buffer.get(at + 2, bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+            strings[index] = s;
+        }
+        return s;
+    }
+
+    private static int key(Field field, int code) {
+        return field.ordinal() * 10000 + code;
+    }
+
+    /**
+     * Writes courses in the binary format.
+     *
+     * @param courses  the courses, with course names filled in (as loaded by {@link DataLoader})
+     * @param filePath the output path
+     * @throws IOException if the file cannot be written, or a section has more than 65535
+     *                     lectures, labs or tutorials
+     */
+    public static void write(List<Course> courses, String filePath) throws IOException {
+        // Intern section and course names, named like DataLoader does
+        Map<String, Integer> stringIndex = new LinkedHashMap<>();
+        int sectionCount = 0;
+        int slotCount = 0;
+        for (Course course : courses) {
+            for (CourseSection section : course.getSections()) {
+                stringIndex.putIfAbsent(sectionName(section), stringIndex.size());
+                stringIndex.putIfAbsent(course.getDisplayName() + sectionName(section), stringIndex.size());
+                checkCount(course, section, "lectures", section.getLectures().size());
+                checkCount(course, section, "labs", section.getLaboratoryOptions().size());
+                checkCount(course, section, "tutorials", section.getTutorialOptions().size());
+                sectionCount++;
+                slotCount += section.getLectures().size() + section.getLaboratoryOptions().size()
+                        + section.getTutorialOptions().size();
+            }
+        }
+
+        long sectionsOffset = HEADER_SIZE + (long) courses.size() * (COURSE_SIZE + KEY_SIZE);
+        long slotsOffset = sectionsOffset + (long) sectionCount * SECTION_SIZE;
+        long stringsOffset = slotsOffset + slotCount;
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(filePath)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(courses.size());
+            out.writeInt(sectionCount);
+            out.writeInt(stringIndex.size());
+            out.writeInt(0);
+            out.writeLong(sectionsOffset);
+            out.writeLong(slotsOffset);
+            out.writeLong(stringsOffset);
+
+            // Course records
+            int section = 0;
+            for (Course course : courses) {
+                out.writeByte(course.getField().ordinal());
+                out.writeByte(0);
+                out.writeShort(course.getCode());
+                out.writeInt(course.getSections().size());
+                out.writeInt(section);
+                out.writeInt(0);
+                section += course.getSections().size();
+            }
+
+            // Key table, sorted for binary search
+            long[] keys = new long[courses.size()];
+            for (int i = 0; i < keys.length; i++) {
+                Course course = courses.get(i);
+                keys[i] = (long) key(course.getField(), course.getCode()) << 32 | i;
+            }
+            Arrays.sort(keys);
+            for (long key : keys) {
+                out.writeInt((int) (key >>> 32));
+                out.writeInt((int) key);
+            }
+
+            // Section records
+            int slot = 0;
+            for (Course course : courses) {
+                for (CourseSection s : course.getSections()) {
+                    out.writeInt(stringIndex.get(sectionName(s)));
+                    out.writeInt(stringIndex.get(course.getDisplayName() + sectionName(s)));
+                    out.writeInt(slot);
+                    out.writeShort(s.getLectures().size());
+                    out.writeShort(s.getLaboratoryOptions().size());
+                    out.writeShort(s.getTutorialOptions().size());
+                    out.writeShort(0);
+                    slot += s.getLectures().size() + s.getLaboratoryOptions().size() + s.getTutorialOptions().size();
+                }
+            }
+
+            // Slot records
+            for (Course course : courses) {
+                for (CourseSection s : course.getSections()) {
+                    writeSlots(out, s.getLectures());
+                    writeSlots(out, s.getLaboratoryOptions());
+                    writeSlots(out, s.getTutorialOptions());
+                }
+            }
+
+            // String table
+            List<byte[]> encoded = new ArrayList<>(stringIndex.size());
+            for (String s : stringIndex.keySet()) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > MAX_UNSIGNED_SHORT) {
+                    throw new IOException("Name too long for a binary catalog: " + bytes.length + " bytes.");
+                }
+                encoded.add(bytes);
+            }
+            long at = stringsOffset + 4L * encoded.size();
+            for (byte[] bytes : encoded) {
+                if (at > Integer.MAX_VALUE) {
+                    throw new IOException("Binary catalog too large.");
+                }
+                out.writeInt((int) at);
+                at += 2 + bytes.length;
+            }
+            for (byte[] bytes : encoded) {
+                out.writeShort(bytes.length);
+                out.write(bytes);
+            }
+        }
+    }
+
+    /** Rejects a slot count that the section record cannot hold. */
+    private static void checkCount(Course course, CourseSection section, String component, int count)
+            throws IOException {
+        if (count > MAX_UNSIGNED_SHORT) {
+            throw new IOException("Section " + course.getDisplayName() + sectionName(section) + " has " + count
+                    + " " + component + "; a binary catalog holds at most " + MAX_UNSIGNED_SHORT + ".");
+        }
+    }
+
+    private static String sectionName(CourseSection section) {
+        return section.getName() != null ? section.getName() : "";
+    }
+
+    private static void writeSlots(DataOutputStream out, List<TimeSlot> slots) throws IOException {
+        for (TimeSlot slot : slots) {
+            out.writeByte((slot.getExtended() ? 0x80 : 0) | slot.getDay() << 4 | slot.getStartTime());
+        }
+    }
+
+    /**
+     * Converts a JSON catalog to the binary format.
+     *
+     * @param args the JSON input path and the binary output path
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: BinaryCatalog INPUT.json OUTPUT.cscb");
+            return;
+        }
+        try {
+            List<Course> courses = new DataLoader(args[0]).loadCourses();
+            write(courses, args[1]);
+            System.out.println("Wrote " + courses.size() + " courses to " + args[1]);
+        } catch (IOException e) {
+            System.out.println("Error converting catalog: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package input;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import model.Field;
+import model.TimeSlot;
+
+/**
+ * Generates synthetic course catalogs in the JSON format read by {@link DataLoader},
+ * for scale testing.
+ *
+ * <p>Courses cycle through every {@link Field}, each with a distinct code in the valid
+ * range (1000 to 4999). Generation is driven by a seeded {@link Random}, so the same
+ * parameters and seed always produce the same catalog. Courses are written to the output
+ * as they are generated, so catalog size is not limited by memory.
+ */
+public class CatalogGenerator {
+
+    /** Largest number of distinct courses: one per field and valid code. */
+    public static final int MAX_COURSES = Field.values().length * 4000;
+
+    /** Step between consecutive codes of a field; coprime with 4000 so codes never repeat. */
+    private static final int CODE_STRIDE = 1237;
+
+    private int courses = 10;
+    private int sectionsPerCourse = 2;
+    private int lecturesPerSection = 2;
+    private int laboratoryOptions = 2;
+    private int tutorialOptions = 2;
+    private double extendedRatio = 0.25;
+    private double[] timeWeights = uniformTimes();
+    private long seed = 42L;
+    private boolean pretty;
+
+    public void setCourses(int courses) {
+        if (courses < 0 || courses > MAX_COURSES) {
+            throw new IllegalArgumentException("Course count should be from 0 to " + MAX_COURSES + ".");
+        }
+        this.courses = courses;
+    }
+
+    public void setSectionsPerCourse(int sectionsPerCourse) {
+        this.sectionsPerCourse = requireNonNegative(sectionsPerCourse, "Sections per course");
+    }
+
+    public void setLecturesPerSection(int lecturesPerSection) {
+        this.lecturesPerSection = requireNonNegative(lecturesPerSection, "Lectures per section");
+    }
+
+    /** Number of laboratory options per section; 0 makes labs non-mandatory. */
+    public void setLaboratoryOptions(int laboratoryOptions) {
+        this.laboratoryOptions = requireNonNegative(laboratoryOptions, "Laboratory options");
+    }
+
+    /** Number of tutorial options per section; 0 makes tutorials non-mandatory. */
+    public void setTutorialOptions(int tutorialOptions) {
+        this.tutorialOptions = requireNonNegative(tutorialOptions, "Tutorial options");
+    }
+
+    /** Fraction of slots that are extended (two consecutive periods), from 0 to 1. */
+    public void setExtendedRatio(double extendedRatio) {
+        if (extendedRatio < 0 || extendedRatio > 1) {
+            throw new IllegalArgumentException("Extended ratio should be from 0 to 1.");
+        }
+        this.extendedRatio = extendedRatio;
+    }
+
+    /**
+     * Sets the relative frequency of each start time (8:30 to 20:30).
+     *
+     * @param timeWeights nine non-negative weights, not all zero
+     */
+    public void setTimeWeights(double[] timeWeights) {
+        if (timeWeights.length != TimeSlot.SLOTS_PER_DAY) {
+            throw new IllegalArgumentException("Time weights need one value per start time (" + TimeSlot.SLOTS_PER_DAY + ").");
+        }
+        double total = 0;
+        for (double w : timeWeights) {
+            if (w < 0) throw new IllegalArgumentException("Time weights cannot be negative.");
+            total += w;
+        }
+        if (total <= 0) {
+            throw new IllegalArgumentException("At least one time weight should be positive.");
+        }
+        this.timeWeights = timeWeights.clone();
+    }
+
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    public void setPretty(boolean pretty) {
+        this.pretty = pretty;
+    }
+
+    /**
+     * Writes a catalog to a file.
+     *
+     * @param filePath the output path
+     * @throws IOException if the file cannot be written
+     */
+    public void generate(String filePath) throws IOException {
+        try (JsonGenerator gen = new JsonFactory().createGenerator(new File(filePath), JsonEncoding.UTF8)) {
+            write(gen);
+        }
+    }
+
+    /**
+     * Writes a catalog to a stream, leaving the stream open.
+     *
+     * @param out the output stream
+     * @throws IOException if writing fails
+     */
+    public void generate(OutputStream out) throws IOException {
+        JsonGenerator gen = new JsonFactory().createGenerator(out, JsonEncoding.UTF8);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try (gen) {
+            write(gen);
+        }
+    }
+
+    private void write(JsonGenerator gen) throws IOException {
+        if (pretty) {
+            gen.useDefaultPrettyPrinter();
+        }
+        Random random = new Random(seed);
+        double[] cumulative = cumulativeTimes();
+        Field[] fields = Field.values();
+
+        gen.writeStartArray();
+        for (int c = 0; c < courses; c++) {
+            gen.writeStartObject();
+            gen.writeStringField("field", fields[c % fields.length].name());
+            gen.writeNumberField("code", 1000 + (c / fields.length * CODE_STRIDE) % 4000);
+
+            gen.writeArrayFieldStart("sections");
+            for (int s = 0; s < sectionsPerCourse; s++) {
+                gen.writeStartObject();
+                gen.writeStringField("name", sectionName(s));
+                writeSlots(gen, "lectures", lecturesPerSection, random, cumulative);
+                writeSlots(gen, "laboratoryOptions", laboratoryOptions, random, cumulative);
+                writeSlots(gen, "tutorialOptions", tutorialOptions, random, cumulative);
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    private void writeSlots(JsonGenerator gen, String name, int count, Random random, double[] cumulative)
+            throws IOException {
+        gen.writeArrayFieldStart(name);
+        for (int i = 0; i < count; i++) {
+            int startTime = pickTime(random, cumulative);
+            // An extended slot needs a following period, which 20:30 does not have
+            boolean extended = startTime + 1 < TimeSlot.SLOTS_PER_DAY && random.nextDouble() < extendedRatio;
+            gen.writeStartObject();
+            gen.writeNumberField("startTime", startTime);
+            gen.writeNumberField("day", random.nextInt(TimeSlot.DAYS));
+            gen.writeBooleanField("extended", extended);
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+    }
+
+    private static int pickTime(Random random, double[] cumulative) {
+        double r = random.nextDouble() * cumulative[cumulative.length - 1];
+        for (int t = 0; t < cumulative.length - 1; t++) {
+            if (r < cumulative[t]) return t;
+        }
+        return cumulative.length - 1;
+    }
+
+    private double[] cumulativeTimes() {
+        double[] cumulative = new double[timeWeights.length];
+        double total = 0;
+        for (int t = 0; t < timeWeights.length; t++) {
+            total += timeWeights[t];
+            cumulative[t] = total;
+        }
+        return cumulative;
+    }
+
+    /** Section names A..Z, then AA, AB, ... */
+    private static String sectionName(int index) {
+        StringBuilder name = new StringBuilder();
+        for (int i = index + 1; i > 0; i = (i - 1) / 26) {
+            name.insert(0, (char) ('A' + (i - 1) % 26));
+        }
+        return name.toString();
+    }
+
+    private static int requireNonNegative(int value, String what) {
+        if (value < 0) {
+            throw new IllegalArgumentException(what + " cannot be negative.");
+        }
+        return value;
+    }
+
+    private static double[] uniformTimes() {
+        double[] weights = new double[TimeSlot.SLOTS_PER_DAY];
+        Arrays.fill(weights, 1.0);
+        return weights;
+    }
+
+    /**
+     * Command-line entry point.
+     *
+     * <pre>
+     * CatalogGenerator OUTPUT [--courses N] [--sections N] [--lectures N] [--labs N]
+     *                  [--tutorials N] [--extended RATIO] [--times W0,...,W8] [--seed N] [--pretty]
+     * </pre>
+     *
+     * @param args the output path followed by options
+     */
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: CatalogGenerator OUTPUT [--courses N] [--sections N] [--lectures N]"
+                    + " [--labs N] [--tutorials N] [--extended RATIO] [--times W0,...,W8] [--seed N] [--pretty]");
+            return;
+        }
+        CatalogGenerator generator = new CatalogGenerator();
+        try {
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--courses" -> generator.setCourses(Integer.parseInt(args[++i]));
+                    case "--sections" -> generator.setSectionsPerCourse(Integer.parseInt(args[++i]));
+                    case "--lectures" -> generator.setLecturesPerSection(Integer.parseInt(args[++i]));
+                    case "--labs" -> generator.setLaboratoryOptions(Integer.parseInt(args[++i]));
+                    case "--tutorials" -> generator.setTutorialOptions(Integer.parseInt(args[++i]));
+                    case "--extended" -> generator.setExtendedRatio(Double.parseDouble(args[++i]));
+                    case "--times" -> generator.setTimeWeights(Arrays.stream(args[++i].split(","))
+                            .mapToDouble(Double::parseDouble).toArray());
+                    case "--seed" -> generator.setSeed(Long.parseLong(args[++i]));
+                    case "--pretty" -> generator.setPretty(true);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+            generator.generate(args[0]);
+        } catch (IOException e) {
+            System.out.println("Error writing catalog: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("Invalid arguments: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package input;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import model.Course;
+import model.CourseKey;
+
+/**
+ * A catalog of courses loaded once and looked up by {@link CourseKey}.
+ *
+ * <p>The catalog is never modified after loading, so one instance can be shared by any
+ * number of threads that only read its courses. Every instance gets a distinct version, so
+ * data derived from its courses can be cached per version and never mixed with a reload.
+ */
+public class CourseCatalog {
+
+    private static final AtomicLong versions = new AtomicLong();
+
+    private final long version = versions.incrementAndGet();
+    private final List<Course> courses;
+    private final Map<CourseKey, Course> byKey;
+
+    public CourseCatalog(List<Course> courses) {
+        this.courses = Collections.unmodifiableList(new ArrayList<>(courses));
+        this.byKey = new HashMap<>();
+        for (Course course : courses) {
+            // Keep the first definition of a course listed twice
+            byKey.putIfAbsent(CourseKey.of(course), course);
+        }
+    }
+
+    /**
+     * Loads every course of a JSON or binary catalog, see {@link DataLoader}.
+     *
+     * @param filePath path to the catalog
+     * @return the catalog
+     * @throws IOException if the file cannot be read or parsed
+     */
+    public static CourseCatalog load(String filePath) throws IOException {
+        return new CourseCatalog(new DataLoader(filePath).loadCourses());
+    }
+
+    /** Identifies this catalog among all catalogs loaded by the JVM. */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Course> getCourses() {
+        return courses;
+    }
+
+    public int size() {
+        return courses.size();
+    }
+
+    /** Returns a course, or null if the catalog does not contain it. */
+    public Course get(CourseKey key) {
+        return byKey.get(key);
+    }
+
+    /**
+     * Looks up several courses, keeping the requested order.
+     *
+     * @param keys the courses
+     * @return the courses, in the order of the keys
+     * @throws IllegalArgumentException if a course is not in the catalog
+     */
+    public List<Course> select(Collection<CourseKey> keys) {
+        List<Course> selected = new ArrayList<>(keys.size());
+        for (CourseKey key : keys) {
+            Course course = byKey.get(key);
+            if (course == null) {
+                throw new IllegalArgumentException("Course not found: " + key);
+            }
+            selected.add(course);
+        }
+        return selected;
+    }
+}
@@ -7,6 +7,7 @@ import java.util.List;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.core.type.TypeReference;
 
+import metrics.Metrics;
 import model.Component;
 import model.Course;
 import model.CourseSection;
@@ -52,14 +53,30 @@ public class DataLoader {
 
     /**
      * Reads the JSON course data file and parses it into a list of Course objects.
+     * Files in the {@link BinaryCatalog} format are recognized and read from that format instead.
      *
      * @return a list of Course objects
      * @throws IOException if the file cannot be read or parsed
      */
     public List<Course> loadCourses() throws IOException {
+        long start = Metrics.start();
+        try {
+            return readCourses();
+        } finally {
+            Metrics.stop(Metrics.Phase.LOAD, start);
+        }
+    }
+
+    private List<Course> readCourses() throws IOException {
         ObjectMapper mapper = new ObjectMapper();
         File file = new File(filePath);
 
+        if (file.isFile() && BinaryCatalog.isBinaryCatalog(filePath)) {
+            try (BinaryCatalog catalog = BinaryCatalog.open(filePath)) {
+                return catalog.loadCourses();
+            }
+        }
+
         // Reads the JSON array into a list of Course objects
         List<Course> courses = mapper.readValue(file, new TypeReference<List<Course>>() {});
 
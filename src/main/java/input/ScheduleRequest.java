@@ -0,0 +1,120 @@
+package input;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import logic.config.Config;
+import model.CourseKey;
+
+/**
+ * One student's scheduling request: the courses to take, how many schedules to return and
+ * optional overrides of the scoring configuration.
+ *
+ * <p>The JSON form is:
+ * <pre>
+ * {"id": "s1", "courses": ["CSI2105", "MAT1341"], "k": 10, "config": {"gapPunishment": 2}}
+ * </pre>
+ * Only {@code courses} is required. {@code config} replaces the given fields of the default
+ * configuration and keeps the others.
+ */
+public class ScheduleRequest {
+
+    public static final int DEFAULT_K = 10;
+    public static final int MAX_K = 1000;
+    /** Most courses in one request; a full term is well below it, and each course multiplies the search. */
+    public static final int MAX_COURSES = 12;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final String id;
+    private final List<CourseKey> courses;
+    private final int k;
+    private final Config config;
+
+    public ScheduleRequest(String id, List<CourseKey> courses, int k, Config config) {
+        this.id = id;
+        this.courses = Collections.unmodifiableList(new ArrayList<>(courses));
+        this.k = k;
+        this.config = config;
+    }
+
+    /**
+     * Reads a request.
+     *
+     * @param node     the JSON request
+     * @param defaults configuration used for the fields the request does not override
+     * @return the request
+     * @throws IllegalArgumentException if the request is malformed
+     * @throws JsonProcessingException  if the configuration overrides are invalid
+     */
+    public static ScheduleRequest fromJson(JsonNode node, Config defaults) throws JsonProcessingException {
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Expected a JSON object.");
+        }
+
+        JsonNode idNode = node.get("id");
+        String id = idNode == null || idNode.isNull() ? null : idNode.asText();
+
+        JsonNode names = node.get("courses");
+        if (names == null || !names.isArray() || names.isEmpty()) {
+            throw new IllegalArgumentException("\"courses\" must be a non-empty array of course names.");
+        }
+        if (names.size() > MAX_COURSES) {
+            throw new IllegalArgumentException("\"courses\" must list at most " + MAX_COURSES + " courses.");
+        }
+        List<CourseKey> courses = new ArrayList<>();
+        for (JsonNode name : names) {
+            if (!name.isTextual()) {
+                throw new IllegalArgumentException("Course names must be strings, e.g. \"CSI2105\".");
+            }
+            courses.add(CourseKey.parse(name.asText()));
+        }
+
+        int k = DEFAULT_K;
+        JsonNode kNode = node.get("k");
+        if (kNode != null) {
+            if (!kNode.canConvertToInt() || kNode.asInt() < 1 || kNode.asInt() > MAX_K) {
+                throw new IllegalArgumentException("\"k\" must be an integer from 1 to " + MAX_K + ".");
+            }
+            k = kNode.asInt();
+        }
+
+        return new ScheduleRequest(id, courses, k, withOverrides(defaults, node.get("config")));
+    }
+
+    /** The default configuration with the given fields replaced. */
+    private static Config withOverrides(Config defaults, JsonNode overrides) throws JsonProcessingException {
+        if (overrides == null || overrides.isNull()) {
+            return defaults;
+        }
+        if (!overrides.isObject()) {
+            throw new IllegalArgumentException("\"config\" must be an object.");
+        }
+        ObjectNode merged = mapper.valueToTree(defaults);
+        merged.setAll((ObjectNode) overrides);
+        return mapper.treeToValue(merged, Config.class);
+    }
+
+    /** Identifier echoed in the results, or null if the request has none. */
+    public String getId() {
+        return id;
+    }
+
+    public List<CourseKey> getCourses() {
+        return courses;
+    }
+
+    public int getK() {
+        return k;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+}
@@ -0,0 +1,196 @@
+package input;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import metrics.Metrics;
+import model.Component;
+import model.Course;
+import model.CourseKey;
+import model.CourseSection;
+import model.Field;
+import model.TimeSlot;
+
+/**
+ * Reads only the requested courses from a JSON catalog in the {@link DataLoader} format.
+ *
+ * <p>Walks the file with Jackson's streaming {@link JsonParser}: sections of courses that
+ * were not requested are skipped token by token without building any object, and requested
+ * courses get their course names and components while they are parsed. Parsing stops as soon
+ * as every requested course has been found, so memory and time depend on the request rather
+ * than on the size of the catalog.
+ */
+public class StreamingCourseLoader {
+
+    /** Path to the JSON file containing course information. */
+    private final String filePath;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public StreamingCourseLoader(String filePath) {
+        this.filePath = filePath;
+    }
+
+    /**
+     * Loads the requested courses.
+     *
+     * @param keys the courses to load
+     * @return the courses, in catalog order
+     * @throws IOException              if the file cannot be read or parsed
+     * @throws IllegalArgumentException if a requested course is not in the catalog
+     */
+    public List<Course> loadCourses(Set<CourseKey> keys) throws IOException {
+        List<Course> courses = new ArrayList<>();
+        Set<CourseKey> remaining = new HashSet<>(keys);
+
+        long start = Metrics.start();
+        try (JsonParser parser = mapper.getFactory().createParser(new File(filePath))) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected an array of courses in " + filePath);
+            }
+            while (!remaining.isEmpty() && parser.nextToken() == JsonToken.START_OBJECT) {
+                Course course = readCourse(parser, remaining);
+                if (course != null) {
+                    courses.add(course);
+                    remaining.remove(CourseKey.of(course));
+                }
+            }
+        } finally {
+            Metrics.stop(Metrics.Phase.LOAD, start);
+        }
+        for (CourseKey key : keys) {
+            if (remaining.contains(key)) {
+                throw new IllegalArgumentException("Course not found: " + key);
+            }
+        }
+        return courses;
+    }
+
+    /** Reads one course object, returning null if it was not requested. */
+    private Course readCourse(JsonParser parser, Set<CourseKey> requested) throws IOException {
+        Field field = null;
+        Integer code = null;
+        List<CourseSection> sections = null;
+        JsonNode bufferedSections = null;
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            parser.nextToken();
+            switch (name) {
+                case "field":
+                    field = Field.valueOf(parser.getText());
+                    break;
+                case "code":
+                    code = parser.getIntValue();
+                    break;
+                case "sections":
+                    if (field != null && code != null) {
+                        if (requested.contains(new CourseKey(field, code))) {
+                            sections = readSections(parser, field.name() + code);
+                        } else {
+                            parser.skipChildren();
+                        }
+                    } else {
+                        // Sections before the course key: keep them until the key is known
+                        bufferedSections = parser.readValueAsTree();
+                    }
+                    break;
+                default:
+                    parser.skipChildren();
+            }
+        }
+
+        if (field == null || code == null || !requested.contains(new CourseKey(field, code))) {
+            return null;
+        }
+        if (bufferedSections != null) {
+            try (JsonParser buffered = bufferedSections.traverse(mapper)) {
+                buffered.nextToken();
+                sections = readSections(buffered, field.name() + code);
+            }
+        }
+        return new Course(field, code, sections);
+    }
+
+    private List<CourseSection> readSections(JsonParser parser, String courseName) throws IOException {
+        List<CourseSection> sections = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return sections;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            CourseSection section = new CourseSection();
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                switch (name) {
+                    case "name":
+                        section.setName(parser.getText());
+                        break;
+                    case "lectures":
+                        section.setLectures(readSlots(parser, Component.LEC));
+                        break;
+                    case "laboratoryOptions":
+                        section.setLaboratoryOptions(readSlots(parser, Component.LAB));
+                        break;
+                    case "tutorialOptions":
+                        section.setTutorialOptions(readSlots(parser, Component.TUT));
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+
+            // The section name may follow its slots in the object
+            String sectionName = courseName + section.getName();
+            for (TimeSlot lec : section.getLectures()) lec.setCourseName(sectionName);
+            for (TimeSlot lab : section.getLaboratoryOptions()) lab.setCourseName(sectionName);
+            for (TimeSlot tut : section.getTutorialOptions()) tut.setCourseName(sectionName);
+            sections.add(section);
+        }
+        return sections;
+    }
+
+    private List<TimeSlot> readSlots(JsonParser parser, Component comp) throws IOException {
+        List<TimeSlot> slots = new ArrayList<>();
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            parser.skipChildren();
+            return slots;
+        }
+        while (parser.nextToken() == JsonToken.START_OBJECT) {
+            int startTime = 0;
+            int day = 0;
+            boolean extended = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                switch (name) {
+                    case "startTime":
+                        startTime = parser.getIntValue();
+                        break;
+                    case "day":
+                        day = parser.getIntValue();
+                        break;
+                    case "extended":
+                        extended = parser.getBooleanValue();
+                        break;
+                    default:
+                        parser.skipChildren();
+                }
+            }
+            TimeSlot slot = new TimeSlot(startTime, day, extended);
+            slot.setComp(comp);
+            slots.add(slot);
+        }
+        return slots;
+    }
+}
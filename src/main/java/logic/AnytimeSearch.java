@@ -0,0 +1,372 @@
+package logic;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import logic.config.Config;
+import metrics.Metrics;
+import model.Course;
+import model.TimeSlot;
+
+/**
+ * Time-budgeted search for a good schedule when the exact searches would take too long,
+ * e.g. many courses with dozens of sections each.
+ *
+ * <p>Starts from a greedy schedule: courses are assigned from last to first, each taking the
+ * option with the best {@link OptionTable#upperBound} for the rest. If the greedy choices
+ * run into a course with no free option, the {@link ConstrainedSearch} supplies a first
+ * schedule instead, or proves there is none, within the same budget.
+ *
+ * <p>The schedule is then improved by simulated annealing. A move switches one course to
+ * another of its options, and up to two courses it would overlap to options that fit; moves
+ * that cannot be repaired are rejected. Every other move is scored incrementally: the sums
+ * of the {@link OccupancyScorer} day contributions are kept up to date, and only the days
+ * the switched options occupy are looked up again. Better moves are always taken, worse ones
+ * with a probability that shrinks as the temperature cools over the budget. After a long run
+ * without a new best, the walk restarts from the best schedule.
+ *
+ * <p>The best schedule found so far is returned when the budget expires, or earlier once it
+ * reaches the bound on every schedule's score. Random choices come from a fixed seed, so a
+ * search only depends on its inputs and on how many moves fit in the budget.
+ */
+public class AnytimeSearch {
+
+    /** Moves between two checks of the clock. */
+    private static final int CHECK_INTERVAL = 256;
+    /** Moves without a new best after which the walk restarts from the best schedule. */
+    private static final int RESTART_AFTER = 20_000;
+    /** Moves sampled from the first schedule to pick the starting temperature. */
+    private static final int SAMPLES = 100;
+    /** Most courses a move switches to make room for the one it changes. */
+    private static final int MAX_REPAIRS = 2;
+    private static final double FINAL_TEMPERATURE = 0.1;
+    private static final long DEFAULT_SEED = 1L;
+
+    private final OptionTable table;
+    private final OccupancyScorer scorer;
+    private final SplittableRandom random;
+    /** Courses with more than one option: the only ones a move can change. */
+    private final int[] movable;
+
+    private int[] choice;
+    private long mask;
+    private long lectureMask;
+    private int nonLectureCourses;
+    private final int[] fullDays = new int[TimeSlot.DAYS];
+    private final int[] lectureDays = new int[TimeSlot.DAYS];
+    private int fullScore;
+    private int lectureScore;
+
+    /** The proposed move: courses it switches, their new options, and the schedule it leads to. */
+    private final int[] movedCourses = new int[MAX_REPAIRS + 1];
+    private final int[] movedOptions = new int[MAX_REPAIRS + 1];
+    private int moved;
+    private long proposedMask;
+    private long proposedLectureMask;
+    private int proposedNonLecture;
+    private long proposedChanged;
+
+    private long moves;
+    private long overlapping;
+    private long accepted;
+    private long restarts;
+
+    public AnytimeSearch(OptionTable table, OccupancyScorer scorer) {
+        this(table, scorer, DEFAULT_SEED);
+    }
+
+    /**
+     * @param table  the options of the courses to schedule
+     * @param scorer the scorer
+     * @param seed   seed of the random moves
+     */
+    public AnytimeSearch(OptionTable table, OccupancyScorer scorer, long seed) {
+        this.table = table;
+        this.scorer = scorer;
+        this.random = new SplittableRandom(seed);
+        int count = 0;
+        int[] courses = new int[table.courseCount()];
+        for (int c = 0; c < table.courseCount(); c++) {
+            if (table.optionCount(c) > 1) courses[count++] = c;
+        }
+        movable = Arrays.copyOf(courses, count);
+    }
+
+    /**
+     * Finds a good schedule for the given courses within a time budget, after dropping
+     * options that cannot be part of any valid schedule (see {@link ArcConsistency}).
+     *
+     * @param courses the courses to schedule
+     * @param budget  how long to search
+     * @param config  scoring configuration
+     * @return the best schedule found, or null if there is none (past
+     *         {@link ConstrainedSearch#MAX_COURSES} courses, or once the budget expires:
+     *         if none was found)
+     */
+    public static RankedSchedule best(List<Course> courses, Duration budget, Config config) {
+        OptionTable table = ArcConsistency.reduce(new OptionTable(courses)).getTable();
+        return new AnytimeSearch(table, OccupancyScorer.forConfig(config)).best(budget);
+    }
+
+    /**
+     * Searches until the budget expires or no schedule can score higher.
+     *
+     * @param budget how long to search
+     * @return the best schedule found, or null if there is none (past
+     *         {@link ConstrainedSearch#MAX_COURSES} courses, or once the budget expires:
+     *         if none was found)
+     */
+    public RankedSchedule best(Duration budget) {
+        long start = Metrics.start();
+        long deadline = System.nanoTime() + budget.toNanos();
+        moves = 0;
+        overlapping = 0;
+        accepted = 0;
+        restarts = 0;
+
+        int[] seed = seed(deadline);
+        if (seed == null) {
+            Metrics.stop(Metrics.Phase.COMBINE, start);
+            return null;
+        }
+        load(seed);
+        int bestScore = score();
+        int[] best = choice.clone();
+        int ceiling = table.upperBound(scorer, table.courseCount(), 0L, 0L, false);
+
+        double initial = initialTemperature();
+        double temperature = initial;
+        long lastBest = 0;
+        long budgetNanos = Math.max(1L, budget.toNanos());
+        while (bestScore < ceiling && movable.length > 0) {
+            if (moves % CHECK_INTERVAL == 0) {
+                long left = deadline - System.nanoTime();
+                if (left <= 0) break;
+                // Geometric cooling from the initial temperature over the budget
+                double elapsed = 1 - (double) left / budgetNanos;
+                temperature = initial * Math.pow(FINAL_TEMPERATURE / initial, elapsed);
+            }
+            if (moves - lastBest > RESTART_AFTER) {
+                load(best);
+                lastBest = moves;
+                restarts++;
+            }
+            moves++;
+
+            if (!propose()) {
+                overlapping++;
+                continue;
+            }
+            int after = proposedScore();
+            int delta = after - score();
+            if (delta >= 0 || random.nextDouble() < Math.exp(delta / temperature)) {
+                commit();
+                accepted++;
+                if (after > bestScore) {
+                    bestScore = after;
+                    System.arraycopy(choice, 0, best, 0, best.length);
+                    lastBest = moves;
+                }
+            }
+        }
+
+        Metrics.stop(Metrics.Phase.COMBINE, start);
+        Metrics.addOverlapChecks(moves);
+        Metrics.addCombinations(moves - overlapping, overlapping);
+        Metrics.addScoreEvaluations(moves - overlapping);
+        return new RankedSchedule(table.schedule(best), bestScore, best);
+    }
+
+    /** Number of moves tried by the last search, rejected ones included. */
+    public long getMoves() {
+        return moves;
+    }
+
+    /** Number of moves taken by the last search. */
+    public long getAcceptedMoves() {
+        return accepted;
+    }
+
+    /** Number of times the last search went back to its best schedule. */
+    public long getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * Greedy first schedule, or one from the constrained search if greedy gets stuck.
+     *
+     * @param deadline {@link System#nanoTime()} at which the constrained search gives up
+     * @return the option index of each course, or null if there is none or none was found in time
+     */
+    private int[] seed(long deadline) {
+        int courses = table.courseCount();
+        if (courses == 0 || table.hasEmptyCourse()) {
+            return null;
+        }
+        int[] seed = new int[courses];
+        long seedMask = 0L;
+        long seedLectureMask = 0L;
+        boolean seedNonLecture = false;
+        for (int c = courses - 1; c >= 0; c--) {
+            int chosen = -1;
+            int chosenBound = Integer.MIN_VALUE;
+            for (int o = 0; o < table.optionCount(c); o++) {
+                if ((table.mask(c, o) & seedMask) != 0L) continue;
+                int bound = table.upperBound(scorer, c, seedMask | table.mask(c, o),
+                        seedLectureMask | table.lectureMask(c, o), seedNonLecture || table.hasNonLecture(c, o));
+                if (chosen < 0 || bound > chosenBound) {
+                    chosen = o;
+                    chosenBound = bound;
+                }
+            }
+            if (chosen < 0 || chosenBound == Integer.MIN_VALUE) {
+                if (courses > ConstrainedSearch.MAX_COURSES || System.nanoTime() - deadline > 0) {
+                    return null;
+                }
+                return new ConstrainedSearch(table).solve(deadline).getChoice();
+            }
+            seed[c] = chosen;
+            seedMask |= table.mask(c, chosen);
+            seedLectureMask |= table.lectureMask(c, chosen);
+            seedNonLecture |= table.hasNonLecture(c, chosen);
+        }
+        return seed;
+    }
+
+    /** Average score lost by a few random moves away from the current schedule, at least 1. */
+    private double initialTemperature() {
+        if (movable.length == 0) {
+            return 1;
+        }
+        long lost = 0;
+        int worse = 0;
+        int current = score();
+        for (int i = 0; i < SAMPLES; i++) {
+            if (!propose()) continue;
+            int delta = proposedScore() - current;
+            if (delta < 0) {
+                lost -= delta;
+                worse++;
+            }
+        }
+        return worse == 0 ? 1 : Math.max(1.0, (double) lost / worse);
+    }
+
+    /** Makes a schedule current, recomputing every day. */
+    private void load(int[] schedule) {
+        choice = schedule.clone();
+        mask = 0L;
+        lectureMask = 0L;
+        nonLectureCourses = 0;
+        for (int c = 0; c < choice.length; c++) {
+            mask |= table.mask(c, choice[c]);
+            lectureMask |= table.lectureMask(c, choice[c]);
+            if (table.hasNonLecture(c, choice[c])) nonLectureCourses++;
+        }
+        fullScore = 0;
+        lectureScore = 0;
+        for (int day = 0; day < TimeSlot.DAYS; day++) {
+            fullDays[day] = scorer.fullDay(TimeSlot.dayBits(mask, day));
+            lectureDays[day] = scorer.lectureDay(TimeSlot.dayBits(lectureMask, day));
+            fullScore += fullDays[day];
+            lectureScore += lectureDays[day];
+        }
+    }
+
+    private int score() {
+        return scorer.combine(fullScore, lectureScore, nonLectureCourses > 0);
+    }
+
+    /**
+     * Proposes a random move: one course switches to another of its options, and the courses
+     * that option would overlap, at most {@link #MAX_REPAIRS}, switch to random options that
+     * fit. Without the repairs, most moves of a tightly packed schedule would just overlap.
+     *
+     * @return whether the move is free of overlaps; if so it is kept until {@link #commit()}
+     */
+    private boolean propose() {
+        int course = movable[random.nextInt(movable.length)];
+        int current = choice[course];
+        int option = random.nextInt(table.optionCount(course) - 1);
+        if (option >= current) option++;
+
+        long occupied = mask & ~table.mask(course, current);
+        long conflict = table.mask(course, option) & occupied;
+        occupied |= table.mask(course, option);
+        movedCourses[0] = course;
+        movedOptions[0] = option;
+        moved = 1;
+        for (int c = 0; conflict != 0L && c < choice.length; c++) {
+            if (c == course || (table.mask(c, choice[c]) & conflict) == 0L) continue;
+            if (moved > MAX_REPAIRS) return false;
+            conflict &= ~table.mask(c, choice[c]);
+            // Repairs never overlap another course's old option, only the new one of the moved course
+            occupied = occupied & ~table.mask(c, choice[c]) | table.mask(course, option);
+            int count = table.optionCount(c);
+            int first = random.nextInt(count);
+            int repair = -1;
+            for (int i = 0; i < count && repair < 0; i++) {
+                int o = (first + i) % count;
+                if (o != choice[c] && (table.mask(c, o) & occupied) == 0L) repair = o;
+            }
+            if (repair < 0) return false;
+            occupied |= table.mask(c, repair);
+            movedCourses[moved] = c;
+            movedOptions[moved] = repair;
+            moved++;
+        }
+
+        long removedLectures = 0L;
+        long addedLectures = 0L;
+        int nonLecture = nonLectureCourses;
+        long changed = 0L;
+        for (int i = 0; i < moved; i++) {
+            int c = movedCourses[i];
+            int from = choice[c];
+            int to = movedOptions[i];
+            removedLectures |= table.lectureMask(c, from);
+            addedLectures |= table.lectureMask(c, to);
+            if (table.hasNonLecture(c, from)) nonLecture--;
+            if (table.hasNonLecture(c, to)) nonLecture++;
+            changed |= table.mask(c, from) | table.mask(c, to);
+        }
+        proposedMask = occupied;
+        proposedLectureMask = lectureMask & ~removedLectures | addedLectures;
+        proposedNonLecture = nonLecture;
+        proposedChanged = changed;
+        return true;
+    }
+
+    /** Score of the current schedule after the proposed move, looking up only the days that change. */
+    private int proposedScore() {
+        int full = fullScore;
+        int lecture = lectureScore;
+        for (int day = 0; day < TimeSlot.DAYS; day++) {
+            if (TimeSlot.dayBits(proposedChanged, day) == 0) continue;
+            full += scorer.fullDay(TimeSlot.dayBits(proposedMask, day)) - fullDays[day];
+            lecture += scorer.lectureDay(TimeSlot.dayBits(proposedLectureMask, day)) - lectureDays[day];
+        }
+        return scorer.combine(full, lecture, proposedNonLecture > 0);
+    }
+
+    /** Makes the proposed move, updating the days that change. */
+    private void commit() {
+        for (int i = 0; i < moved; i++) {
+            choice[movedCourses[i]] = movedOptions[i];
+        }
+        mask = proposedMask;
+        lectureMask = proposedLectureMask;
+        nonLectureCourses = proposedNonLecture;
+        for (int day = 0; day < TimeSlot.DAYS; day++) {
+            if (TimeSlot.dayBits(proposedChanged, day) == 0) continue;
+            int full = scorer.fullDay(TimeSlot.dayBits(mask, day));
+            int lecture = scorer.lectureDay(TimeSlot.dayBits(lectureMask, day));
+            fullScore += full - fullDays[day];
+            lectureScore += lecture - lectureDays[day];
+            fullDays[day] = full;
+            lectureDays[day] = lecture;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package logic;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Deque;
+
+/**
+ * Removes options that cannot be part of any valid schedule before the search starts.
+ *
+ * <p>Runs AC-3 over the {@link CompatibilityMatrix}: an option is dropped when some other
+ * course has no remaining option it is compatible with. Each removal re-queues the arcs
+ * pointing at the changed course, until no more options can be dropped. Every valid schedule
+ * survives, and the reduced table keeps options in their original order, so rankings over it
+ * are identical to rankings over the full table.
+ */
+public class ArcConsistency {
+
+    private final OptionTable original;
+    private final OptionTable reduced;
+    private final long pairsChecked;
+    private final long revisions;
+
+    private ArcConsistency(OptionTable original, OptionTable reduced, long pairsChecked, long revisions) {
+        this.original = original;
+        this.reduced = reduced;
+        this.pairsChecked = pairsChecked;
+        this.revisions = revisions;
+    }
+
+    /**
+     * Builds the compatibility matrix of a table and propagates it to a fixpoint.
+     *
+     * @param table the expanded options
+     * @return the reduced table and pruning statistics
+     */
+    public static ArcConsistency reduce(OptionTable table) {
+        CompatibilityMatrix matrix = new CompatibilityMatrix(table);
+        int n = table.courseCount();
+
+        BitSet[] domains = new BitSet[n];
+        for (int c = 0; c < n; c++) {
+            domains[c] = new BitSet(table.optionCount(c));
+            domains[c].set(0, table.optionCount(c));
+        }
+
+        Deque<int[]> arcs = new ArrayDeque<>();
+        boolean[][] queued = new boolean[n][n];
+        for (int c = 0; c < n; c++) {
+            for (int d = 0; d < n; d++) {
+                if (c != d) {
+                    arcs.add(new int[]{c, d});
+                    queued[c][d] = true;
+                }
+            }
+        }
+
+        long revisions = 0;
+        while (!arcs.isEmpty()) {
+            int[] arc = arcs.poll();
+            int c = arc[0];
+            int d = arc[1];
+            queued[c][d] = false;
+            revisions++;
+
+            if (revise(matrix, domains, c, d)) {
+                if (domains[c].isEmpty()) {
+                    // No schedule exists; an empty course is all the search needs to know
+                    break;
+                }
+                for (int e = 0; e < n; e++) {
+                    if (e != c && e != d && !queued[e][c]) {
+                        arcs.add(new int[]{e, c});
+                        queued[e][c] = true;
+                    }
+                }
+            }
+        }
+
+        return new ArcConsistency(table, table.retain(domains), matrix.getPairsChecked(), revisions);
+    }
+
+    /** Drops the options of course c with no compatible option left in course d. */
+    private static boolean revise(CompatibilityMatrix matrix, BitSet[] domains, int c, int d) {
+        boolean removed = false;
+        for (int o = domains[c].nextSetBit(0); o >= 0; o = domains[c].nextSetBit(o + 1)) {
+            if (!matrix.compatibleOptions(c, o, d).intersects(domains[d])) {
+                domains[c].clear(o);
+                removed = true;
+            }
+        }
+        return removed;
+    }
+
+    /** The table with every inconsistent option removed. */
+    public OptionTable getTable() {
+        return reduced;
+    }
+
+    /** Whether some course lost all of its options, so that no valid schedule exists. */
+    public boolean isInfeasible() {
+        return reduced.hasEmptyCourse();
+    }
+
+    public long getPairsChecked() {
+        return pairsChecked;
+    }
+
+    /** Number of arcs revised before reaching the fixpoint. */
+    public long getRevisions() {
+        return revisions;
+    }
+
+    /**
+     * Describes how much the reduction shrank each course and the whole search space.
+     *
+     * @return a multi-line report
+     */
+    public String report() {
+        StringBuilder message = new StringBuilder("Option pruning (arc consistency):");
+        double before = 1;
+        double after = 1;
+        for (int c = 0; c < original.courseCount(); c++) {
+            int total = original.optionCount(c);
+            int kept = reduced.optionCount(c);
+            before *= total;
+            after *= kept;
+            message.append(String.format("%n  %-10s %5d -> %5d options",
+                    original.getCourses().get(c).getDisplayName(), total, kept));
+        }
+        message.append(String.format("%n  Combinations: %.3g -> %.3g", before, after));
+        message.append(String.format("%n  Pairs checked: %d, arc revisions: %d", pairsChecked, revisions));
+        if (isInfeasible()) {
+            message.append(String.format("%n  No valid schedule exists."));
+        }
+        return message.toString();
+    }
+}
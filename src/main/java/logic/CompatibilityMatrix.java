@@ -0,0 +1,75 @@
+package logic;
+
+import java.util.BitSet;
+
+import metrics.Metrics;
+
+/**
+ * Pairwise compatibility between the options of different courses.
+ *
+ * <p>For every option of every course and every other course, a {@link BitSet} holds the
+ * options of that other course it does not overlap. Built once from the occupancy masks of
+ * an {@link OptionTable}, it lets {@link ArcConsistency} check whether an option still has a
+ * partner in another course with a single {@link BitSet#intersects}.
+ */
+public class CompatibilityMatrix {
+
+    private final OptionTable table;
+
+    /** compatible[c][o][d]: options of course d compatible with option o of course c (null when c == d). */
+    private final BitSet[][][] compatible;
+    private long pairsChecked;
+
+    public CompatibilityMatrix(OptionTable table) {
+        this.table = table;
+        int n = table.courseCount();
+        compatible = new BitSet[n][][];
+        for (int c = 0; c < n; c++) {
+            compatible[c] = new BitSet[table.optionCount(c)][n];
+            for (int o = 0; o < table.optionCount(c); o++) {
+                for (int d = 0; d < n; d++) {
+                    if (d != c) compatible[c][o][d] = new BitSet(table.optionCount(d));
+                }
+            }
+        }
+
+        // Overlap is symmetric, so each pair of courses is checked once
+        for (int c = 0; c < n; c++) {
+            for (int d = c + 1; d < n; d++) {
+                for (int o = 0; o < table.optionCount(c); o++) {
+                    long mask = table.mask(c, o);
+                    for (int p = 0; p < table.optionCount(d); p++) {
+                        if ((mask & table.mask(d, p)) == 0L) {
+                            compatible[c][o][d].set(p);
+                            compatible[d][p][c].set(o);
+                        }
+                    }
+                }
+                pairsChecked += (long) table.optionCount(c) * table.optionCount(d);
+            }
+        }
+        Metrics.addOverlapChecks(pairsChecked);
+    }
+
+    public OptionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Returns the options of course {@code other} that do not overlap option {@code option} of course {@code course}.
+     * The returned set must not be modified.
+     */
+    public BitSet compatibleOptions(int course, int option, int other) {
+        return compatible[course][option][other];
+    }
+
+    /** Whether two options of different courses can be part of the same schedule. */
+    public boolean compatible(int course, int option, int other, int otherOption) {
+        return compatible[course][option][other].get(otherOption);
+    }
+
+    /** Number of option pairs whose overlap was checked to build the matrix. */
+    public long getPairsChecked() {
+        return pairsChecked;
+    }
+}
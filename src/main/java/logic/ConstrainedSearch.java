@@ -0,0 +1,434 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import metrics.Metrics;
+import model.Course;
+
+/**
+ * Search driver that assigns the most constrained course first and backjumps over courses
+ * that had no part in a dead end.
+ *
+ * <p>Every unassigned course keeps its domain: the options still compatible with every
+ * course assigned so far (forward checking, with the {@link CompatibilityMatrix}). The next
+ * course is the one with the fewest options left, so a course that barely fits is tried
+ * while little has been assigned, instead of failing at the end of the list.
+ *
+ * <p>A dead end is explained by a conflict set: the assigned courses whose choices removed
+ * the options of the course that ran out. When every option of a course fails, the search
+ * returns straight to the latest course of its conflict set, skipping the assignments in
+ * between, which could only fail the same way (conflict-directed backjumping). On catalogs
+ * that are barely feasible, or not at all, this keeps the search close to linear in the
+ * number of courses where backtracking one course at a time would retry every combination
+ * of the uninvolved courses.
+ *
+ * <p>{@link #solve()} finds one schedule or proves there is none, naming the courses that
+ * cannot be taken together. {@link #topK} ranks schedules like {@link ScheduleSearch} with
+ * the same results, ties included: schedules are compared by their position in generation
+ * order, which only depends on their options.
+ */
+public class ConstrainedSearch {
+
+    /** Most courses one search handles; conflict sets are bitmasks of courses. */
+    public static final int MAX_COURSES = Long.SIZE;
+
+    /** Worst retained candidate first: lowest score, then latest in generation order. */
+    private static final Comparator<Candidate> WORST_FIRST =
+            Comparator.comparingInt((Candidate c) -> c.score).thenComparing(ConstrainedSearch::generationOrder);
+
+    /** Nodes between two checks of the clock, minus one, when {@link #solve(long)} has a deadline. */
+    private static final int CHECK_MASK = 255;
+
+    /** Conflict set of a subtree that found a schedule or was pruned: no jump is allowed over it. */
+    private static final long EVERY_COURSE = -1L;
+
+    private final OptionTable table;
+    private final int courses;
+    /** compatible[c][o][d]: words of the options of course d compatible with option o of course c. */
+    private final long[][][][] compatible;
+    /** domains[depth][c]: options of course c left once {@code depth} courses are assigned. */
+    private final long[][][] domains;
+    /** prunedBy[depth][c]: assigned courses that removed options of course c, as bits. */
+    private final long[][] prunedBy;
+
+    private OccupancyScorer scorer;
+    private PriorityQueue<Candidate> best;
+    private int limit;
+    private int[] choice;
+    private long assigned;
+    /** Every course that took part in a dead end, as bits. */
+    private long involved;
+    private long nodes;
+    private long jumps;
+    private long wipeouts;
+    private long prunedBranches;
+    private long schedules;
+    /** {@link System#nanoTime()} at which {@link #solve(long)} gives up, if {@link #timed}. */
+    private long deadline;
+    private boolean timed;
+    private boolean expired;
+
+    /**
+     * @param table the options of the courses to schedule, at most {@link #MAX_COURSES} courses
+     */
+    public ConstrainedSearch(OptionTable table) {
+        this.table = table;
+        this.courses = table.courseCount();
+        if (courses > MAX_COURSES) {
+            throw new IllegalArgumentException("Cannot search more than " + MAX_COURSES + " courses at once.");
+        }
+
+        CompatibilityMatrix matrix = new CompatibilityMatrix(table);
+        compatible = new long[courses][][][];
+        for (int c = 0; c < courses; c++) {
+            compatible[c] = new long[table.optionCount(c)][courses][];
+            for (int o = 0; o < table.optionCount(c); o++) {
+                for (int d = 0; d < courses; d++) {
+                    if (d != c) compatible[c][o][d] = words(matrix.compatibleOptions(c, o, d), table.optionCount(d));
+                }
+            }
+        }
+
+        domains = new long[courses + 1][courses][];
+        prunedBy = new long[courses + 1][courses];
+        for (int depth = 0; depth <= courses; depth++) {
+            for (int c = 0; c < courses; c++) {
+                domains[depth][c] = new long[(table.optionCount(c) + 63) >>> 6];
+            }
+        }
+        for (int c = 0; c < courses; c++) {
+            BitSet all = new BitSet();
+            all.set(0, table.optionCount(c));
+            domains[0][c] = words(all, table.optionCount(c));
+        }
+    }
+
+    private static long[] words(BitSet set, int size) {
+        long[] words = new long[(size + 63) >>> 6];
+        long[] bits = set.toLongArray();
+        System.arraycopy(bits, 0, words, 0, bits.length);
+        return words;
+    }
+
+    /**
+     * Finds one schedule, or proves there is none.
+     *
+     * @return the outcome
+     */
+    public Result solve() {
+        return solve(false, 0L);
+    }
+
+    /**
+     * Finds one schedule, or proves there is none, unless the deadline passes first.
+     *
+     * @param deadline {@link System#nanoTime()} at which to give up
+     * @return the outcome; {@link Result#isExpired()} if the search gave up
+     */
+    public Result solve(long deadline) {
+        return solve(true, deadline);
+    }
+
+    private Result solve(boolean timed, long deadline) {
+        long start = Metrics.start();
+        reset(1, null);
+        this.timed = timed;
+        this.deadline = deadline;
+        if (courses > 0 && !table.hasEmptyCourse()) {
+            search(0, 0L, 0L, false);
+        }
+        this.timed = false;
+        Metrics.stop(Metrics.Phase.COMBINE, start);
+        Metrics.addCombinations(schedules, wipeouts);
+
+        if (!best.isEmpty()) {
+            return new Result(best.peek().choice, List.of(), false);
+        }
+        if (expired) {
+            return new Result(null, List.of(), true);
+        }
+        List<Course> conflicting = new ArrayList<>();
+        for (int c = 0; c < courses; c++) {
+            if (table.optionCount(c) == 0 || (involved & 1L << c) != 0) conflicting.add(table.getCourses().get(c));
+        }
+        return new Result(null, conflicting, false);
+    }
+
+    /**
+     * Finds the K best schedules, in the same order as {@link ScheduleSearch#topK(int)}.
+     *
+     * @param k      number of schedules to return
+     * @param scorer the scorer
+     * @return up to K schedules, best first
+     */
+    public List<RankedSchedule> topK(int k, OccupancyScorer scorer) {
+        long start = Metrics.start();
+        reset(k, scorer);
+        if (k > 0 && courses > 0 && !table.hasEmptyCourse()) {
+            search(0, 0L, 0L, false);
+        }
+        Metrics.stop(Metrics.Phase.COMBINE, start);
+        Metrics.addCombinations(schedules, wipeouts + prunedBranches);
+        Metrics.addScoreEvaluations(schedules);
+
+        List<Candidate> found = new ArrayList<>(best);
+        found.sort(WORST_FIRST.reversed());
+        List<RankedSchedule> ranked = new ArrayList<>(found.size());
+        for (Candidate c : found) {
+            ranked.add(new RankedSchedule(table.schedule(c.choice), c.score, c.choice));
+        }
+        best = null;
+        return ranked;
+    }
+
+    private void reset(int k, OccupancyScorer scorer) {
+        this.scorer = scorer;
+        best = new PriorityQueue<>(WORST_FIRST);
+        limit = k;
+        choice = new int[courses];
+        assigned = 0L;
+        involved = 0L;
+        nodes = 0;
+        jumps = 0;
+        wipeouts = 0;
+        prunedBranches = 0;
+        schedules = 0;
+        expired = false;
+    }
+
+    /** Number of partial schedules the last search extended. */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /** Number of times the last search returned past courses that had no part in a dead end. */
+    public long getBackjumps() {
+        return jumps;
+    }
+
+    /**
+     * Assigns the most constrained unassigned course.
+     *
+     * @return the conflict set of the subtree: courses whose assignment it failed because of,
+     *         or {@link #EVERY_COURSE} if it found a schedule or was pruned
+     */
+    private long search(int depth, long mask, long lectureMask, boolean hasNonLecture) {
+        if (depth == courses) {
+            offer(mask, lectureMask, hasNonLecture);
+            return EVERY_COURSE;
+        }
+        // The first node checks too, so a deadline that has already passed is never overrun
+        if (timed && (nodes & CHECK_MASK) == 0 && System.nanoTime() - deadline > 0) {
+            expired = true;
+        }
+        nodes++;
+        if (expired) {
+            return EVERY_COURSE;
+        }
+        int course = mostConstrained(depth);
+        long bit = 1L << course;
+        long[] domain = domains[depth][course];
+        // Options missing from the domain were removed by these courses
+        long conflicts = prunedBy[depth][course];
+
+        assigned |= bit;
+        for (int w = 0; w < domain.length; w++) {
+            for (long bits = domain[w]; bits != 0L; bits &= bits - 1) {
+                int o = w << 6 | Long.numberOfTrailingZeros(bits);
+                choice[course] = o;
+
+                long wipeout = forwardCheck(depth, course, o);
+                if (wipeout != 0L) {
+                    conflicts |= wipeout;
+                    continue;
+                }
+                long nextMask = mask | table.mask(course, o);
+                long nextLectureMask = lectureMask | table.lectureMask(course, o);
+                boolean nextNonLecture = hasNonLecture || table.hasNonLecture(course, o);
+                if (scorer != null && !promising(depth + 1, nextMask, nextLectureMask, nextNonLecture)) {
+                    prunedBranches++;
+                    conflicts = EVERY_COURSE;
+                    continue;
+                }
+
+                long below = search(depth + 1, nextMask, nextLectureMask, nextNonLecture);
+                if ((scorer == null && !best.isEmpty()) || expired) {
+                    assigned &= ~bit;
+                    return EVERY_COURSE;
+                }
+                if ((below & bit) == 0L) {
+                    // This course had no part in the dead end below: changing it cannot help
+                    jumps++;
+                    assigned &= ~bit;
+                    return below;
+                }
+                conflicts |= below;
+            }
+        }
+        assigned &= ~bit;
+        if (conflicts != EVERY_COURSE) involved |= conflicts | bit;
+        return conflicts & ~bit & assigned;
+    }
+
+    /** Unassigned course with the fewest options left; among equals, the last one. */
+    private int mostConstrained(int depth) {
+        int course = -1;
+        int fewest = Integer.MAX_VALUE;
+        for (int c = courses - 1; c >= 0; c--) {
+            if ((assigned & 1L << c) != 0L) continue;
+            int size = 0;
+            for (long word : domains[depth][c]) size += Long.bitCount(word);
+            if (size < fewest) {
+                fewest = size;
+                course = c;
+            }
+        }
+        return course;
+    }
+
+    /**
+     * Narrows the domains of the unassigned courses to the options compatible with option
+     * {@code option} of {@code course}, into the next depth.
+     *
+     * @return 0 if every course still has an option, else the conflict set of the course left
+     *         without one: the assigned courses that removed its options
+     */
+    private long forwardCheck(int depth, int course, int option) {
+        long bit = 1L << course;
+        for (int d = 0; d < courses; d++) {
+            if ((assigned & 1L << d) != 0L) continue;
+            long[] from = domains[depth][d];
+            long[] into = domains[depth + 1][d];
+            long[] with = compatible[course][option][d];
+            boolean empty = true;
+            boolean narrowed = false;
+            for (int w = 0; w < from.length; w++) {
+                long word = from[w] & with[w];
+                into[w] = word;
+                empty &= word == 0L;
+                narrowed |= word != from[w];
+            }
+            prunedBy[depth + 1][d] = narrowed ? prunedBy[depth][d] | bit : prunedBy[depth][d];
+            if (empty) {
+                wipeouts++;
+                involved |= 1L << d;
+                return prunedBy[depth + 1][d];
+            }
+        }
+        return 0L;
+    }
+
+    /** Whether the completions of a partial schedule can still reach the K best. */
+    private boolean promising(int depth, long mask, long lectureMask, boolean hasNonLecture) {
+        if (best.size() < limit) return true;
+        long required = 0L;
+        long reachable = 0L;
+        long requiredLecture = 0L;
+        long reachableLecture = 0L;
+        boolean nonLectureRequired = false;
+        boolean nonLectureReachable = false;
+        for (int d = 0; d < courses; d++) {
+            if ((assigned & 1L << d) != 0L) continue;
+            long all = -1L;
+            long allLecture = -1L;
+            boolean allNonLecture = true;
+            long[] domain = domains[depth][d];
+            for (int w = 0; w < domain.length; w++) {
+                for (long bits = domain[w]; bits != 0L; bits &= bits - 1) {
+                    int o = w << 6 | Long.numberOfTrailingZeros(bits);
+                    long m = table.mask(d, o);
+                    long l = table.lectureMask(d, o);
+                    all &= m;
+                    reachable |= m;
+                    allLecture &= l;
+                    reachableLecture |= l;
+                    boolean nonLecture = table.hasNonLecture(d, o);
+                    allNonLecture &= nonLecture;
+                    nonLectureReachable |= nonLecture;
+                }
+            }
+            required |= all;
+            requiredLecture |= allLecture;
+            nonLectureRequired |= allNonLecture;
+        }
+        int bound = scorer.upperBound(mask | required, reachable, lectureMask | requiredLecture, reachableLecture,
+                hasNonLecture || nonLectureReachable, !hasNonLecture && !nonLectureRequired);
+        // Unlike ScheduleSearch, completions can come earlier in generation order and win a tie
+        return bound >= best.peek().score;
+    }
+
+    private void offer(long mask, long lectureMask, boolean hasNonLecture) {
+        schedules++;
+        int score = scorer == null ? 0 : scorer.score(mask, lectureMask, hasNonLecture);
+        Candidate candidate = new Candidate(choice.clone(), score);
+        if (best.size() < limit) {
+            best.add(candidate);
+        } else if (WORST_FIRST.compare(candidate, best.peek()) > 0) {
+            best.poll();
+            best.add(candidate);
+        }
+    }
+
+    /**
+     * Compares positions in generation order, where schedules are ordered by the option of
+     * the last course, then of the one before it, and so on; later sorts first.
+     */
+    private static int generationOrder(Candidate a, Candidate b) {
+        for (int c = a.choice.length - 1; c >= 0; c--) {
+            if (a.choice[c] != b.choice[c]) return Integer.compare(b.choice[c], a.choice[c]);
+        }
+        return 0;
+    }
+
+    /**
+     * Outcome of {@link #solve()}: one schedule, or the courses that cannot be taken together,
+     * or neither if the deadline passed first.
+     */
+    public final class Result {
+        private final int[] choice;
+        private final List<Course> conflicting;
+        private final boolean expired;
+
+        Result(int[] choice, List<Course> conflicting, boolean expired) {
+            this.choice = choice;
+            this.conflicting = conflicting;
+            this.expired = expired;
+        }
+
+        public boolean isFeasible() {
+            return choice != null;
+        }
+
+        /** Whether the search gave up at its deadline, knowing neither a schedule nor a conflict. */
+        public boolean isExpired() {
+            return expired;
+        }
+
+        /** Option index per course of the schedule found, or null if there is none. */
+        public int[] getChoice() {
+            return choice == null ? null : choice.clone();
+        }
+
+        /**
+         * Courses taking part in the conflicts that ruled out every schedule; no schedule
+         * exists for these courses alone. Empty if a schedule was found.
+         */
+        public List<Course> getConflictingCourses() {
+            return conflicting;
+        }
+    }
+
+    private static final class Candidate {
+        final int[] choice;
+        final int score;
+
+        Candidate(int[] choice, int score) {
+            this.choice = choice;
+            this.score = score;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package logic;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import logic.config.Config;
+import logic.rules.ScoringRule;
+import model.SlotList;
+import model.TimeSlot;
+
+/**
+ * Scores schedules from their occupancy bitmasks (see {@link TimeSlot#getMask()}).
+ *
+ * <p>Produces exactly the same score as {@link ScoringEngine}, but without building a
+ * grid: every factor of the engine, custom {@link ScoringRule}s included, depends only on
+ * each day's 9-bit occupancy, so the contribution of every possible day is precomputed into
+ * a 512-entry table when the scorer is created for a {@link Config}. A schedule's score is
+ * then five table lookups for all components plus, when the lecture-only round applies,
+ * five lookups for the lectures, blended and truncated like the engine does. Adding rules
+ * makes the tables slower to build, never the per-schedule evaluation.
+ *
+ * <p>Also provides optimistic bounds on the final score of a partial schedule, used by
+ * {@link ScheduleSearch} to prune branches that cannot reach the current top results.
+ */
+public class OccupancyScorer {
+
+    private static final int DAY_STATES = 1 << TimeSlot.SLOTS_PER_DAY;
+    private static final int DAY_MASK = TimeSlot.DAY_MASK;
+
+    private final Config config;
+
+    /** Day contribution for every day mask, with gap penalties (all components) and without (lectures only). */
+    private final int[] fullTable = new int[DAY_STATES];
+    private final int[] lectureTable = new int[DAY_STATES];
+
+    /** Best and worst day contribution over all supersets of a day mask, with and without gaps. */
+    private final int[] maxFull = new int[DAY_STATES];
+    private final int[] minFull = new int[DAY_STATES];
+    private final int[] maxLecture = new int[DAY_STATES];
+    private final int[] minLecture = new int[DAY_STATES];
+
+    /** Most configurations {@link #forConfig} keeps a scorer for. */
+    private static final int CACHED_CONFIGS = 8;
+
+    /** Scorers of the recently requested configurations, least recently used first. */
+    private static final Map<Config, OccupancyScorer> CACHE = new LinkedHashMap<>(16, 0.75f, true);
+
+    public OccupancyScorer(Config config) {
+        this.config = config;
+        for (int bits = 0; bits < DAY_STATES; bits++) {
+            fullTable[bits] = dayScore(bits, true);
+            lectureTable[bits] = dayScore(bits, false);
+        }
+        fillSupersetBounds(maxFull, minFull, true);
+        fillSupersetBounds(maxLecture, minLecture, false);
+    }
+
+    /**
+     * Returns a scorer for the given configuration, shared with earlier callers that asked for
+     * an equal one among the 8 most recently requested configurations.
+     *
+     * <p>A convenience for one-off scoring: a caller that scores repeatedly should build its
+     * own scorer and keep it, which costs no lookup and cannot be evicted by other callers.
+     * The tables are built outside the lock, so two threads missing the same configuration at
+     * once may both build them; the first one stored is kept.
+     */
+    public static OccupancyScorer forConfig(Config config) {
+        synchronized (CACHE) {
+            OccupancyScorer cached = CACHE.get(config);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        OccupancyScorer scorer = new OccupancyScorer(config);
+        synchronized (CACHE) {
+            OccupancyScorer raced = CACHE.putIfAbsent(config, scorer);
+            if (raced != null) {
+                return raced;
+            }
+            Iterator<OccupancyScorer> eldest = CACHE.values().iterator();
+            while (CACHE.size() > CACHED_CONFIGS) {
+                eldest.next();
+                eldest.remove();
+            }
+        }
+        return scorer;
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Scores a schedule.
+     *
+     * @param schedule the schedule
+     * @return the same score as {@link ScoringEngine#apply}
+     */
+    public int score(SlotList schedule) {
+        return score(schedule.getMask(), schedule.getLectureMask(), schedule.hasNonLecture());
+    }
+
+    /**
+     * Scores a schedule given its occupancy.
+     *
+     * @param mask          occupancy of all components
+     * @param lectureMask   occupancy of lectures only
+     * @param hasNonLecture whether the schedule contains a lab or tutorial
+     * @return Score (higher = better).
+     */
+    public int score(long mask, long lectureMask, boolean hasNonLecture) {
+        int score = fullTable[(int) mask & DAY_MASK]
+                + fullTable[(int) (mask >>> 9) & DAY_MASK]
+                + fullTable[(int) (mask >>> 18) & DAY_MASK]
+                + fullTable[(int) (mask >>> 27) & DAY_MASK]
+                + fullTable[(int) (mask >>> 36) & DAY_MASK];
+        if (!config.getDoLectureOnlyRound() || !hasNonLecture) {
+            return score;
+        }
+        int lectureOnlyScore = lectureTable[(int) lectureMask & DAY_MASK]
+                + lectureTable[(int) (lectureMask >>> 9) & DAY_MASK]
+                + lectureTable[(int) (lectureMask >>> 18) & DAY_MASK]
+                + lectureTable[(int) (lectureMask >>> 27) & DAY_MASK]
+                + lectureTable[(int) (lectureMask >>> 36) & DAY_MASK];
+        return blend(score, lectureOnlyScore);
+    }
+
+    /**
+     * Returns an upper bound on the score of any schedule that contains the fixed
+     * occupancy and possibly some of the free occupancy.
+     *
+     * @param mask            occupancy every completion contains
+     * @param freeMask        occupancy a completion may add
+     * @param lectureMask     lecture occupancy every completion contains
+     * @param freeLectureMask lecture occupancy a completion may add
+     * @param mayHaveNonLecture  whether some completion contains a lab or tutorial
+     * @param mayBeLectureOnly   whether some completion contains lectures only
+     * @return a score no completion can exceed
+     */
+    public int upperBound(long mask, long freeMask, long lectureMask, long freeLectureMask,
+                          boolean mayHaveNonLecture, boolean mayBeLectureOnly) {
+        int maxScore = 0;
+        int minScore = 0;
+        for (int day = 0; day < TimeSlot.DAYS; day++) {
+            int bits = TimeSlot.dayBits(mask, day);
+            if ((TimeSlot.dayBits(freeMask, day) & ~bits) == 0) {
+                int exact = fullTable[bits];
+                maxScore += exact;
+                minScore += exact;
+            } else {
+                maxScore += maxFull[bits];
+                minScore += minFull[bits];
+            }
+        }
+        if (!config.getDoLectureOnlyRound() || !mayHaveNonLecture) {
+            return maxScore;
+        }
+
+        int maxLectureScore = 0;
+        int minLectureScore = 0;
+        for (int day = 0; day < TimeSlot.DAYS; day++) {
+            int bits = TimeSlot.dayBits(lectureMask, day);
+            if ((TimeSlot.dayBits(freeLectureMask, day) & ~bits) == 0) {
+                int exact = lectureTable[bits];
+                maxLectureScore += exact;
+                minLectureScore += exact;
+            } else {
+                maxLectureScore += maxLecture[bits];
+                minLectureScore += minLecture[bits];
+            }
+        }
+        // Truncating blend is monotone in both scores, so plugging in the extremes bounds it
+        double weight = config.getLectureOnlyWeight();
+        int blended = blend(1 - weight >= 0 ? maxScore : minScore, weight >= 0 ? maxLectureScore : minLectureScore);
+        return mayBeLectureOnly ? Math.max(maxScore, blended) : blended;
+    }
+
+    /** Contribution of one day's occupancy of all components, as summed by {@link #score(long, long, boolean)}. */
+    int fullDay(int bits) {
+        return fullTable[bits];
+    }
+
+    /** Contribution of one day's lecture occupancy, as summed by {@link #score(long, long, boolean)}. */
+    int lectureDay(int bits) {
+        return lectureTable[bits];
+    }
+
+    /**
+     * Combines the day contributions summed over a schedule into its score, like
+     * {@link #score(long, long, boolean)}: for callers that keep the sums up to date
+     * themselves and only recompute the days a change touches.
+     */
+    int combine(int score, int lectureOnlyScore, boolean hasNonLecture) {
+        return config.getDoLectureOnlyRound() && hasNonLecture ? blend(score, lectureOnlyScore) : score;
+    }
+
+    /** Weighted average of the regular and lecture-only scores, truncated like ScoringEngine. */
+    int blend(int score, int lectureOnlyScore) {
+        return (int) ((1 - config.getLectureOnlyWeight()) * score
+                    + config.getLectureOnlyWeight() * lectureOnlyScore);
+    }
+
+    /**
+     * Contribution of a single day to the score: day-off reward, gap penalty, early/late
+     * penalties and the points of every custom rule.
+     *
+     * @param bits      the day's occupancy, bit {@code t} set if start time {@code t} is taken
+     * @param punishGap whether to apply gap penalties (false in the lecture-only round)
+     */
+    int dayScore(int bits, boolean punishGap) {
+        int score = 0;
+        for (ScoringRule rule : config.getRules()) {
+            score += rule.dayScore(bits, !punishGap);
+        }
+        if (bits == 0) {
+            return score + config.getDayOffReward();
+        }
+        if (punishGap) {
+            int first = Integer.numberOfTrailingZeros(bits);
+            int last = 31 - Integer.numberOfLeadingZeros(bits);
+            int gap = last - first + 1 - Integer.bitCount(bits);
+            score += gap * config.getGapPunishment();
+        }
+        if ((bits & 1) != 0) {
+            score += config.getTimePunishment(0);
+        } else if ((bits & 1 << 1) != 0) {
+            score += config.getTimePunishment(1);
+        }
+        if ((bits & 1 << 8) != 0) {
+            score += config.getTimePunishment(3);
+        } else if ((bits & 1 << 7) != 0) {
+            score += config.getTimePunishment(2);
+        }
+        return score;
+    }
+
+    /** Fills, for every day mask, the extreme day scores among all of its supersets. */
+    private void fillSupersetBounds(int[] max, int[] min, boolean punishGap) {
+        for (int bits = DAY_STATES - 1; bits >= 0; bits--) {
+            int score = punishGap ? fullTable[bits] : lectureTable[bits];
+            max[bits] = score;
+            min[bits] = score;
+            for (int t = 0; t < TimeSlot.SLOTS_PER_DAY; t++) {
+                int superset = bits | 1 << t;
+                if (superset != bits) {
+                    max[bits] = Math.max(max[bits], max[superset]);
+                    min[bits] = Math.min(min[bits], min[superset]);
+                }
+            }
+        }
+    }
+}
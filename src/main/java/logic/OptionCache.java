@@ -0,0 +1,161 @@
+package logic;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import model.Course;
+import model.CourseKey;
+import model.SlotList;
+
+/**
+ * Bounded cache of expanded course options, shared by long-running front ends.
+ *
+ * <p>Entries are keyed by catalog version and course, so a reloaded catalog never sees the
+ * options of its predecessor. The cache holds at most a fixed number of options in total
+ * and evicts the least recently used courses beyond that, which keeps popular courses
+ * expanded under a skewed workload while memory stays bounded.
+ *
+ * <p>Cached arrays are shared: callers must not modify them. Expansion happens outside the
+ * lock, so two threads missing the same course at once may both expand it; the first one
+ * stored is kept.
+ */
+public class OptionCache {
+
+    private final long maxOptions;
+    private final Map<Key, SlotList[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long options;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxOptions largest total number of options kept; the most recently used course
+     *                   is always kept, even if it alone exceeds this
+     */
+    public OptionCache(long maxOptions) {
+        if (maxOptions < 1) {
+            throw new IllegalArgumentException("Cache must hold at least one option.");
+        }
+        this.maxOptions = maxOptions;
+    }
+
+    /**
+     * Returns the options of a course, expanding them on a miss.
+     *
+     * @param catalogVersion version of the catalog the course belongs to
+     * @param course         the course
+     * @return its options, as returned by {@link OptionTable#expand(Course)}
+     */
+    public SlotList[] options(long catalogVersion, Course course) {
+        Key key = new Key(catalogVersion, CourseKey.of(course));
+        synchronized (entries) {
+            SlotList[] cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+        }
+
+        misses.increment();
+        SlotList[] expanded = OptionTable.expand(course);
+        synchronized (entries) {
+            SlotList[] raced = entries.putIfAbsent(key, expanded);
+            if (raced != null) {
+                return raced;
+            }
+            options += weight(expanded);
+            evict();
+        }
+        return expanded;
+    }
+
+    /**
+     * Builds an option table from cached options.
+     *
+     * @param catalogVersion version of the catalog the courses belong to
+     * @param courses        the courses, in schedule generation order
+     * @return the table
+     */
+    public OptionTable table(long catalogVersion, List<Course> courses) {
+        return OptionTable.of(courses, course -> options(catalogVersion, course));
+    }
+
+    /** Drops least recently used courses until the bound holds. Call with the lock held. */
+    private void evict() {
+        Iterator<SlotList[]> eldest = entries.values().iterator();
+        while (options > maxOptions && entries.size() > 1) {
+            options -= weight(eldest.next());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    /** Courses without options still take an entry. */
+    private static long weight(SlotList[] courseOptions) {
+        return Math.max(1, courseOptions.length);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /** Number of courses currently cached. */
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /** Total number of options currently cached. */
+    public long getOptions() {
+        synchronized (entries) {
+            return options;
+        }
+    }
+
+    /**
+     * Describes the cache usage.
+     *
+     * @return a one-line report
+     */
+    public String report() {
+        long hit = getHits();
+        long total = hit + getMisses();
+        return String.format("Option cache: %d courses, %d options, %d hits, %d misses (%.1f%% hit rate), %d evictions",
+                size(), getOptions(), hit, total - hit, total == 0 ? 0.0 : 100.0 * hit / total, getEvictions());
+    }
+
+    private static final class Key {
+        final long catalogVersion;
+        final CourseKey course;
+
+        Key(long catalogVersion, CourseKey course) {
+            this.catalogVersion = catalogVersion;
+            this.course = course;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key other = (Key) o;
+            return catalogVersion == other.catalogVersion && course.equals(other.course);
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(catalogVersion) * 31 + course.hashCode();
+        }
+    }
+}
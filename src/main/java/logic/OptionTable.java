@@ -0,0 +1,252 @@
+package logic;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.function.Function;
+
+import metrics.Metrics;
+import model.Course;
+import model.SlotList;
+
+/**
+ * Expanded scheduling options of a list of courses, indexed by course and option.
+ *
+ * <p>Keeps each option's occupancy masks in primitive arrays for the search engines, plus
+ * aggregates over every prefix of the course list: for courses {@code [0, i)}, the occupancy
+ * they are certain to add (bits shared by all options of one course) and the occupancy they
+ * can possibly add. Searches assign courses from last to first, so these prefixes describe
+ * the courses still unassigned.
+ */
+public class OptionTable {
+
+    private final List<Course> courses;
+    private final SlotList[][] options;
+    private final long[][] masks;
+    private final long[][] lectureMasks;
+    private final boolean[][] nonLecture;
+
+    private final long[] requiredBefore;
+    private final long[] reachableBefore;
+    private final long[] requiredLectureBefore;
+    private final long[] reachableLectureBefore;
+    private final boolean[] nonLectureRequiredBefore;
+    private final boolean[] nonLectureReachableBefore;
+
+    /**
+     * Expands the options of every course.
+     *
+     * @param courses the courses, in schedule generation order
+     */
+    public OptionTable(List<Course> courses) {
+        this(courses, expand(courses));
+    }
+
+    private OptionTable(List<Course> courses, SlotList[][] options) {
+        this.courses = courses;
+        this.options = options;
+        int n = options.length;
+        masks = new long[n][];
+        lectureMasks = new long[n][];
+        nonLecture = new boolean[n][];
+        requiredBefore = new long[n + 1];
+        reachableBefore = new long[n + 1];
+        requiredLectureBefore = new long[n + 1];
+        reachableLectureBefore = new long[n + 1];
+        nonLectureRequiredBefore = new boolean[n + 1];
+        nonLectureReachableBefore = new boolean[n + 1];
+
+        for (int c = 0; c < n; c++) {
+            int count = options[c].length;
+            masks[c] = new long[count];
+            lectureMasks[c] = new long[count];
+            nonLecture[c] = new boolean[count];
+
+            long required = count > 0 ? -1L : 0L;
+            long requiredLecture = required;
+            long reachable = 0L;
+            long reachableLecture = 0L;
+            boolean allNonLecture = count > 0;
+            boolean anyNonLecture = false;
+            for (int o = 0; o < count; o++) {
+                SlotList option = options[c][o];
+                masks[c][o] = option.getMask();
+                lectureMasks[c][o] = option.getLectureMask();
+                nonLecture[c][o] = option.hasNonLecture();
+
+                required &= option.getMask();
+                requiredLecture &= option.getLectureMask();
+                reachable |= option.getMask();
+                reachableLecture |= option.getLectureMask();
+                allNonLecture &= option.hasNonLecture();
+                anyNonLecture |= option.hasNonLecture();
+            }
+
+            requiredBefore[c + 1] = requiredBefore[c] | required;
+            reachableBefore[c + 1] = reachableBefore[c] | reachable;
+            requiredLectureBefore[c + 1] = requiredLectureBefore[c] | requiredLecture;
+            reachableLectureBefore[c + 1] = reachableLectureBefore[c] | reachableLecture;
+            nonLectureRequiredBefore[c + 1] = nonLectureRequiredBefore[c] || allNonLecture;
+            nonLectureReachableBefore[c + 1] = nonLectureReachableBefore[c] || anyNonLecture;
+        }
+    }
+
+    /**
+     * Builds a table from options expanded elsewhere, e.g. shared between many tables.
+     *
+     * @param courses   the courses, in schedule generation order
+     * @param expansion the options of a course, as returned by {@link #expand(Course)};
+     *                  the arrays are not modified
+     * @return the table
+     */
+    public static OptionTable of(List<Course> courses, Function<? super Course, SlotList[]> expansion) {
+        SlotList[][] options = new SlotList[courses.size()][];
+        for (int c = 0; c < options.length; c++) {
+            options[c] = expansion.apply(courses.get(c));
+        }
+        return new OptionTable(courses, options);
+    }
+
+    /**
+     * Expands the options of one course.
+     *
+     * @param course the course
+     * @return its options, in {@link Course#getOptions()} order
+     */
+    public static SlotList[] expand(Course course) {
+        long start = Metrics.start();
+        SlotList[] options = course.getOptions().stream().map(SlotList::of).toArray(SlotList[]::new);
+        Metrics.stop(Metrics.Phase.EXPAND, start);
+        Metrics.recordOptions(course, options.length);
+        return options;
+    }
+
+    private static SlotList[][] expand(List<Course> courses) {
+        SlotList[][] options = new SlotList[courses.size()][];
+        for (int c = 0; c < options.length; c++) {
+            options[c] = expand(courses.get(c));
+        }
+        return options;
+    }
+
+    /**
+     * Returns a table keeping only the selected options of each course, in their original order.
+     *
+     * @param keep for each course, the indices of the options to keep
+     * @return the reduced table
+     */
+    public OptionTable retain(BitSet[] keep) {
+        SlotList[][] retained = new SlotList[options.length][];
+        for (int c = 0; c < options.length; c++) {
+            SlotList[] courseOptions = new SlotList[keep[c].cardinality()];
+            int i = 0;
+            for (int o = keep[c].nextSetBit(0); o >= 0 && o < options[c].length; o = keep[c].nextSetBit(o + 1)) {
+                courseOptions[i++] = options[c][o];
+            }
+            retained[c] = Arrays.copyOf(courseOptions, i);
+        }
+        return new OptionTable(courses, retained);
+    }
+
+    public List<Course> getCourses() {
+        return courses;
+    }
+
+    public int courseCount() {
+        return options.length;
+    }
+
+    public int optionCount(int course) {
+        return options[course].length;
+    }
+
+    /** Whether some course has no options at all, so that no schedule exists. */
+    public boolean hasEmptyCourse() {
+        for (SlotList[] courseOptions : options) {
+            if (courseOptions.length == 0) return true;
+        }
+        return false;
+    }
+
+    public SlotList option(int course, int option) {
+        return options[course][option];
+    }
+
+    public long mask(int course, int option) {
+        return masks[course][option];
+    }
+
+    public long lectureMask(int course, int option) {
+        return lectureMasks[course][option];
+    }
+
+    public boolean hasNonLecture(int course, int option) {
+        return nonLecture[course][option];
+    }
+
+    /** Occupancy that courses {@code [0, course)} are certain to add. */
+    public long requiredBefore(int course) {
+        return requiredBefore[course];
+    }
+
+    /** Occupancy that courses {@code [0, course)} can possibly add. */
+    public long reachableBefore(int course) {
+        return reachableBefore[course];
+    }
+
+    /** Lecture occupancy that courses {@code [0, course)} are certain to add. */
+    public long requiredLectureBefore(int course) {
+        return requiredLectureBefore[course];
+    }
+
+    /** Lecture occupancy that courses {@code [0, course)} can possibly add. */
+    public long reachableLectureBefore(int course) {
+        return reachableLectureBefore[course];
+    }
+
+    /** Whether one of courses {@code [0, course)} only has options with labs or tutorials. */
+    public boolean nonLectureRequiredBefore(int course) {
+        return nonLectureRequiredBefore[course];
+    }
+
+    /** Whether one of courses {@code [0, course)} has an option with labs or tutorials. */
+    public boolean nonLectureReachableBefore(int course) {
+        return nonLectureReachableBefore[course];
+    }
+
+    /**
+     * Builds the schedule for one option per course, in course order.
+     *
+     * @param choice the option index of each course
+     * @return the concatenated time slots
+     */
+    public SlotList schedule(int[] choice) {
+        SlotList schedule = SlotList.empty();
+        for (int c = 0; c < choice.length; c++) {
+            schedule = SlotList.concat(schedule, options[c][choice[c]]);
+        }
+        return schedule;
+    }
+
+    /**
+     * Returns an upper bound on the score of any schedule completing a partial one in
+     * which courses {@code [0, course)} are still unassigned.
+     *
+     * @param scorer        the scorer
+     * @param course        number of unassigned courses
+     * @param mask          occupancy of the assigned courses
+     * @param lectureMask   lecture occupancy of the assigned courses
+     * @param hasNonLecture whether the assigned courses include a lab or tutorial
+     * @return the bound, or {@link Integer#MIN_VALUE} if no completion can be free of overlaps
+     */
+    public int upperBound(OccupancyScorer scorer, int course, long mask, long lectureMask, boolean hasNonLecture) {
+        long required = requiredBefore[course];
+        if ((mask & required) != 0L) {
+            return Integer.MIN_VALUE;
+        }
+        return scorer.upperBound(mask | required, reachableBefore[course],
+                lectureMask | requiredLectureBefore[course], reachableLectureBefore[course],
+                hasNonLecture || nonLectureReachableBefore[course],
+                !hasNonLecture && !nonLectureRequiredBefore[course]);
+    }
+}
@@ -0,0 +1,338 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import logic.config.Config;
+import logic.rules.ScoringRule;
+import metrics.Metrics;
+import model.Course;
+import model.TimeSlot;
+
+/**
+ * Pareto-optimal schedules over the individual scoring factors, instead of their weighted sum.
+ *
+ * <p>Each schedule gets a factor vector: the points it earns for days off, for gaps, for
+ * early/late classes and for the custom {@link ScoringRule}s under a {@link Config}, which
+ * add up to its score before the lecture-only round. A schedule is on the front when no
+ * other schedule is at least as good on every factor and better on one. Schedules with
+ * equal vectors are the same trade-off and are grouped together.
+ *
+ * <p>Rescaling the day-off reward or the gap penalty by a positive factor does not change the
+ * front, so one run covers every such weighting.
+ *
+ * <p>The search walks the courses depth-first like {@link ScheduleSearch}, without building
+ * every schedule first. Each partial schedule gets an optimistic factor vector from per-day
+ * tables of the best value over all supersets of the day's occupancy. Branches whose
+ * optimistic vector is dominated by a schedule already found are skipped. Complete schedules
+ * are only compared with the current front, which stays small because the factors take few
+ * distinct values. There is never an all-pairs comparison.
+ */
+public class ParetoFront {
+
+    /** Factor indices in a factor vector. */
+    public static final int DAYS_OFF = 0;
+    public static final int GAPS = 1;
+    public static final int EARLY_LATE = 2;
+    /** All custom rules together; always 0 without rules, so it never splits the front then. */
+    public static final int RULES = 3;
+    public static final String[] FACTOR_NAMES = {"daysOff", "gaps", "earlyLate", "rules"};
+
+    private static final int FACTORS = 4;
+    private static final int DAY_STATES = 1 << TimeSlot.SLOTS_PER_DAY;
+
+    private final OptionTable table;
+    private final OccupancyScorer scorer;
+    private final int representatives;
+    private final boolean hasRules;
+
+    /** Factor points of every day mask, and their best value over all supersets of the mask. */
+    private final int[][] dayFactors = new int[FACTORS][DAY_STATES];
+    private final int[][] maxDayFactors = new int[FACTORS][DAY_STATES];
+
+    private List<Point> front;
+    private Map<List<Integer>, Point> byVector;
+    private int[] choice;
+    private long schedules;
+    private long prunedBranches;
+
+    /**
+     * @param table           the options of the courses to schedule
+     * @param config          scoring configuration the factor points are taken from
+     * @param representatives number of schedules kept per trade-off, in generation order
+     */
+    public ParetoFront(OptionTable table, Config config, int representatives) {
+        if (representatives < 1) {
+            throw new IllegalArgumentException("Keep at least one schedule per trade-off.");
+        }
+        this.table = table;
+        this.scorer = OccupancyScorer.forConfig(config);
+        this.representatives = representatives;
+        this.hasRules = !config.getRules().isEmpty();
+
+        for (int bits = 0; bits < DAY_STATES; bits++) {
+            dayFactors(config, bits, dayFactors);
+        }
+        for (int f = 0; f < FACTORS; f++) {
+            for (int bits = DAY_STATES - 1; bits >= 0; bits--) {
+                int max = dayFactors[f][bits];
+                for (int t = 0; t < TimeSlot.SLOTS_PER_DAY; t++) {
+                    int superset = bits | 1 << t;
+                    if (superset != bits) max = Math.max(max, maxDayFactors[f][superset]);
+                }
+                maxDayFactors[f][bits] = max;
+            }
+        }
+    }
+
+    /**
+     * Computes the front for the given courses, after dropping options that cannot be part
+     * of any valid schedule (see {@link ArcConsistency}).
+     *
+     * @param courses         the courses to schedule
+     * @param config          scoring configuration
+     * @param representatives number of schedules kept per trade-off
+     * @return the trade-offs, best score first
+     */
+    public static List<Tradeoff> of(List<Course> courses, Config config, int representatives) {
+        OptionTable table = ArcConsistency.reduce(new OptionTable(courses)).getTable();
+        return new ParetoFront(table, config, representatives).compute();
+    }
+
+    /** Splits {@link OccupancyScorer#dayScore} with gap penalties into its factors. */
+    private static void dayFactors(Config config, int bits, int[][] into) {
+        for (ScoringRule rule : config.getRules()) {
+            into[RULES][bits] += rule.dayScore(bits, false);
+        }
+        if (bits == 0) {
+            into[DAYS_OFF][bits] = config.getDayOffReward();
+            return;
+        }
+        int first = Integer.numberOfTrailingZeros(bits);
+        int last = 31 - Integer.numberOfLeadingZeros(bits);
+        into[GAPS][bits] = (last - first + 1 - Integer.bitCount(bits)) * config.getGapPunishment();
+
+        int time = 0;
+        if ((bits & 1) != 0) {
+            time += config.getTimePunishment(0);
+        } else if ((bits & 1 << 1) != 0) {
+            time += config.getTimePunishment(1);
+        }
+        if ((bits & 1 << 8) != 0) {
+            time += config.getTimePunishment(3);
+        } else if ((bits & 1 << 7) != 0) {
+            time += config.getTimePunishment(2);
+        }
+        into[EARLY_LATE][bits] = time;
+    }
+
+    /**
+     * Finds every Pareto-optimal trade-off.
+     *
+     * @return the trade-offs, by score (highest first), then in generation order
+     */
+    public List<Tradeoff> compute() {
+        long start = Metrics.start();
+        front = new ArrayList<>();
+        byVector = new HashMap<>();
+        choice = new int[table.courseCount()];
+        schedules = 0;
+        prunedBranches = 0;
+
+        if (table.courseCount() > 0 && !table.hasEmptyCourse()) {
+            search(table.courseCount() - 1, 0L, 0L, false);
+        }
+        Metrics.stop(Metrics.Phase.COMBINE, start);
+        Metrics.addCombinations(schedules, prunedBranches);
+        Metrics.addScoreEvaluations(schedules);
+
+        List<Tradeoff> tradeoffs = new ArrayList<>(front.size());
+        for (Point point : front) {
+            List<RankedSchedule> ranked = new ArrayList<>(point.choices.size());
+            for (int i = 0; i < point.choices.size(); i++) {
+                int[] c = point.choices.get(i);
+                ranked.add(new RankedSchedule(table.schedule(c), point.scores.get(i), c));
+            }
+            tradeoffs.add(new Tradeoff(point.factors, point.count, ranked, hasRules));
+        }
+        // Front points are in generation order of their first schedule; the sort is stable
+        tradeoffs.sort((a, b) -> Integer.compare(b.getScore(), a.getScore()));
+
+        front = null;
+        byVector = null;
+        return tradeoffs;
+    }
+
+    /** Number of complete schedules compared with the front by the last run. */
+    public long getSchedulesCompared() {
+        return schedules;
+    }
+
+    /** Number of branches skipped by the last run because they could only reach dominated trade-offs. */
+    public long getPrunedBranches() {
+        return prunedBranches;
+    }
+
+    private void search(int course, long mask, long lectureMask, boolean hasNonLecture) {
+        int count = table.optionCount(course);
+        for (int o = 0; o < count; o++) {
+            long optionMask = table.mask(course, o);
+            if ((optionMask & mask) != 0L) continue;
+
+            choice[course] = o;
+            long nextMask = mask | optionMask;
+            long nextLectureMask = lectureMask | table.lectureMask(course, o);
+            boolean nextNonLecture = hasNonLecture || table.hasNonLecture(course, o);
+
+            if (course == 0) {
+                offer(nextMask, nextLectureMask, nextNonLecture);
+            } else {
+                if (!promising(course, nextMask)) {
+                    prunedBranches++;
+                    continue;
+                }
+                search(course - 1, nextMask, nextLectureMask, nextNonLecture);
+            }
+        }
+    }
+
+    /** Whether some completion of a partial schedule can still reach the front. */
+    private boolean promising(int course, long mask) {
+        long required = table.requiredBefore(course);
+        if ((mask & required) != 0L) {
+            return false;
+        }
+        long fixed = mask | required;
+        long free = table.reachableBefore(course);
+        int[] optimistic = new int[FACTORS];
+        for (int day = 0; day < TimeSlot.DAYS; day++) {
+            int bits = TimeSlot.dayBits(fixed, day);
+            boolean exact = (TimeSlot.dayBits(free, day) & ~bits) == 0;
+            for (int f = 0; f < FACTORS; f++) {
+                optimistic[f] += exact ? dayFactors[f][bits] : maxDayFactors[f][bits];
+            }
+        }
+        for (Point point : front) {
+            if (dominates(point.factors, optimistic)) return false;
+        }
+        return true;
+    }
+
+    private void offer(long mask, long lectureMask, boolean hasNonLecture) {
+        schedules++;
+        int[] factors = new int[FACTORS];
+        for (int day = 0; day < TimeSlot.DAYS; day++) {
+            int bits = TimeSlot.dayBits(mask, day);
+            for (int f = 0; f < FACTORS; f++) {
+                factors[f] += dayFactors[f][bits];
+            }
+        }
+
+        List<Integer> key = key(factors);
+        Point same = byVector.get(key);
+        if (same != null) {
+            same.add(mask, lectureMask, hasNonLecture);
+            return;
+        }
+        for (Point point : front) {
+            if (dominates(point.factors, factors)) return;
+        }
+
+        front.removeIf(point -> {
+            boolean dominated = dominates(factors, point.factors);
+            if (dominated) byVector.remove(key(point.factors));
+            return dominated;
+        });
+        Point point = new Point(factors);
+        point.add(mask, lectureMask, hasNonLecture);
+        front.add(point);
+        byVector.put(key, point);
+    }
+
+    /** Whether {@code a} is at least as good as {@code b} on every factor and better on one. */
+    private static boolean dominates(int[] a, int[] b) {
+        boolean better = false;
+        for (int f = 0; f < FACTORS; f++) {
+            if (a[f] < b[f]) return false;
+            if (a[f] > b[f]) better = true;
+        }
+        return better;
+    }
+
+    /** The whole factor vector, so that distinct trade-offs never share a key. */
+    private static List<Integer> key(int[] factors) {
+        return List.of(factors[DAYS_OFF], factors[GAPS], factors[EARLY_LATE], factors[RULES]);
+    }
+
+    /** A factor vector on the current front and the schedules that reach it. */
+    private final class Point {
+        final int[] factors;
+        final List<int[]> choices = new ArrayList<>();
+        /** Scores of the kept schedules, which can differ by the lecture-only round. */
+        final List<Integer> scores = new ArrayList<>();
+        long count;
+
+        Point(int[] factors) {
+            this.factors = factors;
+        }
+
+        /** Counts the current schedule, keeping it if there are few enough. */
+        void add(long mask, long lectureMask, boolean hasNonLecture) {
+            count++;
+            if (choices.size() < representatives) {
+                choices.add(choice.clone());
+                scores.add(scorer.score(mask, lectureMask, hasNonLecture));
+            }
+        }
+    }
+
+    /**
+     * One Pareto-optimal trade-off: its factor points and some of the schedules reaching them.
+     */
+    public static final class Tradeoff {
+        private final int[] factors;
+        private final int score;
+        private final long count;
+        private final List<RankedSchedule> schedules;
+        private final boolean hasRules;
+
+        Tradeoff(int[] factors, long count, List<RankedSchedule> schedules, boolean hasRules) {
+            this.factors = factors;
+            this.score = schedules.get(0).getScore();
+            this.count = count;
+            this.schedules = Collections.unmodifiableList(schedules);
+            this.hasRules = hasRules;
+        }
+
+        /** Points for one factor, see {@link #DAYS_OFF}, {@link #GAPS}, {@link #EARLY_LATE} and {@link #RULES}. */
+        public int getFactor(int factor) {
+            return factors[factor];
+        }
+
+        /** Score of the first schedule under the configuration, including the lecture-only round. */
+        public int getScore() {
+            return score;
+        }
+
+        /** Number of schedules with exactly these factor points. */
+        public long getCount() {
+            return count;
+        }
+
+        /** The first schedules with these factor points, in generation order. */
+        public List<RankedSchedule> getSchedules() {
+            return schedules;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("days off %+d, gaps %+d, early/late %+d%s (score %d, %d schedule%s)",
+                    factors[DAYS_OFF], factors[GAPS], factors[EARLY_LATE],
+                    hasRules ? String.format(", rules %+d", factors[RULES]) : "",
+                    score, count, count == 1 ? "" : "s");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package logic;
+
+import model.SlotList;
+
+/**
+ * A schedule together with its score.
+ */
+public class RankedSchedule {
+
+    private final SlotList schedule;
+    private final int score;
+    private final int[] choice;
+
+    public RankedSchedule(SlotList schedule, int score) {
+        this(schedule, score, null);
+    }
+
+    /**
+     * @param schedule the schedule
+     * @param score    its score
+     * @param choice   the option index of each course in the {@link OptionTable} it was built from
+     */
+    public RankedSchedule(SlotList schedule, int score, int[] choice) {
+        this.schedule = schedule;
+        this.score = score;
+        this.choice = choice;
+    }
+
+    public SlotList getSchedule() {
+        return schedule;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    /** Option index of each course in the table the schedule was built from, or null if unknown. */
+    public int[] getChoice() {
+        return choice == null ? null : choice.clone();
+    }
+
+    @Override
+    public String toString() {
+        return score + " " + schedule;
+    }
+}
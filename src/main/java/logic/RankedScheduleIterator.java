@@ -0,0 +1,162 @@
+package logic;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import logic.config.Config;
+import metrics.Metrics;
+import model.Course;
+
+/**
+ * Pull-based iterator over schedules in ranked order (best first).
+ *
+ * <p>Uses best-first expansion: partial schedules wait in a priority queue keyed by the
+ * optimistic bound of their completions (see {@link OptionTable#upperBound}), complete
+ * schedules by their exact score. A complete schedule at the head of the queue cannot be
+ * beaten by anything still queued, so it is returned immediately and the rest of the
+ * search space is only explored when the next schedule is requested.
+ *
+ * <p>Ties are broken by generation order, so the sequence matches a stable sort of every
+ * schedule generated by {@code Main}.
+ */
+public class RankedScheduleIterator implements Iterator<RankedSchedule> {
+
+    private final OptionTable table;
+    private final OccupancyScorer scorer;
+    private final PriorityQueue<Node> queue = new PriorityQueue<>(RankedScheduleIterator::compare);
+
+    private Node next;
+
+    public RankedScheduleIterator(List<Course> courses, Config config) {
+        this(new OptionTable(courses), OccupancyScorer.forConfig(config));
+    }
+
+    public RankedScheduleIterator(OptionTable table, OccupancyScorer scorer) {
+        this.table = table;
+        this.scorer = scorer;
+        int n = table.courseCount();
+        if (n > 0 && !table.hasEmptyCourse()) {
+            queue.add(new Node(new int[n], n - 1, 0L, 0L, false, Integer.MAX_VALUE));
+        }
+    }
+
+    /** Returns a sequential, ordered stream over the remaining ranked schedules. */
+    public Stream<RankedSchedule> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null && !queue.isEmpty()) {
+            long start = Metrics.start();
+            next = advance();
+            Metrics.stop(Metrics.Phase.COMBINE, start);
+        }
+        return next != null;
+    }
+
+    @Override
+    public RankedSchedule next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        Node node = next;
+        next = null;
+        return new RankedSchedule(table.schedule(node.choice), node.key, node.choice);
+    }
+
+    /** Expands queued partial schedules until a complete one reaches the head of the queue. */
+    private Node advance() {
+        Node node;
+        while ((node = queue.poll()) != null) {
+            if (node.course < 0) {
+                return node;
+            }
+            expand(node);
+        }
+        return null;
+    }
+
+    private void expand(Node node) {
+        int course = node.course;
+        int count = table.optionCount(course);
+        int pruned = 0;
+        for (int o = 0; o < count; o++) {
+            long optionMask = table.mask(course, o);
+            if ((optionMask & node.mask) != 0L) {
+                pruned++;
+                continue;
+            }
+
+            long mask = node.mask | optionMask;
+            long lectureMask = node.lectureMask | table.lectureMask(course, o);
+            boolean hasNonLecture = node.hasNonLecture || table.hasNonLecture(course, o);
+
+            int key = course == 0
+                    ? scorer.score(mask, lectureMask, hasNonLecture)
+                    : table.upperBound(scorer, course, mask, lectureMask, hasNonLecture);
+            if (key == Integer.MIN_VALUE) {
+                pruned++;
+                continue;
+            }
+
+            int[] choice = node.choice.clone();
+            choice[course] = o;
+            queue.add(new Node(choice, course - 1, mask, lectureMask, hasNonLecture, key));
+        }
+
+        Metrics.addOverlapChecks(count);
+        if (course == 0) {
+            // Every complete schedule is scored; queued ones may never be returned
+            Metrics.addCombinations(count - pruned, pruned);
+            Metrics.addScoreEvaluations(count - pruned);
+        } else {
+            Metrics.addCombinations(0, pruned);
+        }
+    }
+
+    /**
+     * Highest key first. Equal keys go in generation order: the assigned options compared
+     * from the last course down, which orders the disjoint ranges of schedules they cover.
+     */
+    private static int compare(Node a, Node b) {
+        if (a.key != b.key) {
+            return Integer.compare(b.key, a.key);
+        }
+        int last = Math.max(a.course, b.course);
+        for (int c = a.choice.length - 1; c > last; c--) {
+            if (a.choice[c] != b.choice[c]) {
+                return Integer.compare(a.choice[c], b.choice[c]);
+            }
+        }
+        return 0;
+    }
+
+    private static final class Node {
+        /** Option index per course, set for courses above {@link #course}. */
+        final int[] choice;
+        /** Next course to assign, or -1 once the schedule is complete. */
+        final int course;
+        final long mask;
+        final long lectureMask;
+        final boolean hasNonLecture;
+        /** Exact score when complete, upper bound otherwise. */
+        final int key;
+
+        Node(int[] choice, int course, long mask, long lectureMask, boolean hasNonLecture, int key) {
+            this.choice = choice;
+            this.course = course;
+            this.mask = mask;
+            this.lectureMask = lectureMask;
+            this.hasNonLecture = hasNonLecture;
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package logic;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import metrics.Metrics;
+import metrics.Trace;
+import model.Course;
+import model.SlotList;
+
+/**
+ * Generates every valid non-overlapping schedule for a list of courses.
+ *
+ * <p>Schedules are built course by course: each option of the next course is combined
+ * with every schedule built so far that it does not overlap. The resulting order (last
+ * course's option first, then the previous schedules in their own order) is the
+ * generation order that ranking ties are broken by.
+ *
+ * <p>Schedules are kept as a {@link ScheduleList}: each combination records which schedule
+ * and option it joins instead of copying their time slots, so millions of schedules fit in
+ * tens of megabytes.
+ *
+ * <p>{@link #generateParallel} splits each combination step across a fork-join pool and
+ * returns exactly the same list as {@link #generate}.
+ */
+public class ScheduleGenerator {
+
+    /** Number of option pairs checked by one parallel task. */
+    private static final int CHUNK_SIZE = 1 << 14;
+
+    /**
+     * Combines the options of every course into all non-overlapping schedules.
+     *
+     * @param courses the courses to schedule
+     * @param verbose whether to trace every comparison, if a {@link Trace} is running
+     * @return every valid schedule, in generation order
+     * @throws IllegalStateException if some course cannot be added without overlaps
+     */
+    public static ScheduleList generate(List<Course> courses, boolean verbose) {
+        SlotList[][] expanded = new SlotList[courses.size()][];
+        ScheduleList options = ScheduleList.empty(expanded);
+        // Checked once: with tracing off the loops below pay nothing for it
+        boolean traceExpand = verbose && Trace.on(Metrics.Phase.EXPAND);
+        boolean traceCombine = verbose && Trace.on(Metrics.Phase.COMBINE);
+
+        for (int i = 0; i < courses.size(); i++) {
+            Course c = courses.get(i);
+            long expandStart = Metrics.start();
+            expanded[i] = c.getOptions().stream().map(SlotList::of).toArray(SlotList[]::new);
+            Metrics.stop(Metrics.Phase.EXPAND, expandStart);
+            Metrics.recordOptions(c, expanded[i].length);
+            if (traceExpand) Trace.record(Trace.Event.COURSE, i, expanded[i].length);
+
+            ScheduleList newOptions;
+
+            if (options.isEmpty()) {
+                // No previous options: use current course options as base
+                options = ScheduleList.of(expanded, i);
+                newOptions = ScheduleList.empty(expanded);
+            } else {
+                long combineStart = Metrics.start();
+                // Combine new course options with existing schedules
+                ScheduleList.Builder next = options.extend(i);
+                for (int o = 0; o < expanded[i].length; o++) {
+                    for (int s = 0; s < options.size(); s++) {
+                        boolean overlap = next.overlaps(s, o);
+                        if (traceCombine) Trace.record(Trace.Event.PAIR, i, o, s, overlap ? 1 : 0);
+
+                        if (!overlap) {
+                            next.add(s, o);
+                        }
+                    }
+                }
+                newOptions = next.build();
+                recordCombine(combineStart, (long) options.size() * expanded[i].length, newOptions.size());
+            }
+
+            options = update(c, options, expanded[i], newOptions);
+            if (traceCombine) Trace.record(Trace.Event.COMBINED, i, options.size());
+        }
+
+        return options;
+    }
+
+    /**
+     * Parallel version of {@link #generate}: expands the courses' options concurrently, then
+     * splits every combination step into chunks whose results are merged in order.
+     *
+     * @param courses the courses to schedule
+     * @param pool    the pool to run on
+     * @return the same list as {@code generate(courses, false)}
+     * @throws IllegalStateException if some course cannot be added without overlaps
+     */
+    public static ScheduleList generateParallel(List<Course> courses, ForkJoinPool pool) {
+        // Streams started from inside a pool task run on that pool
+        long expandStart = Metrics.start();
+        SlotList[][] expanded = pool.submit(() -> courses.parallelStream()
+                .map(c -> c.getOptions().stream().map(SlotList::of).toArray(SlotList[]::new))
+                .toArray(SlotList[][]::new)).join();
+        Metrics.stop(Metrics.Phase.EXPAND, expandStart);
+        for (int i = 0; i < courses.size(); i++) {
+            Metrics.recordOptions(courses.get(i), expanded[i].length);
+        }
+
+        ScheduleList options = ScheduleList.empty(expanded);
+        for (int i = 0; i < courses.size(); i++) {
+            ScheduleList newOptions;
+
+            if (options.isEmpty()) {
+                options = ScheduleList.of(expanded, i);
+                newOptions = ScheduleList.empty(expanded);
+            } else {
+                long combineStart = Metrics.start();
+                newOptions = combineParallel(options, i, pool);
+                recordCombine(combineStart, (long) options.size() * expanded[i].length, newOptions.size());
+            }
+
+            options = update(courses.get(i), options, expanded[i], newOptions);
+        }
+
+        return options;
+    }
+
+    /** Records one combination step: every pair is checked, the overlapping ones are dropped. */
+    private static void recordCombine(long start, long pairs, int combined) {
+        Metrics.stop(Metrics.Phase.COMBINE, start);
+        Metrics.addOverlapChecks(pairs);
+        Metrics.addCombinations(combined, pairs - combined);
+    }
+
+    /** Replaces the schedules built so far with the new combinations, failing if there are none. */
+    private static ScheduleList update(Course c, ScheduleList options, SlotList[] courseOptions,
+                                       ScheduleList newOptions) {
+        // Update the master list if new combinations were found
+        if (!newOptions.isEmpty()) {
+            return newOptions;
+        }
+
+        // If no non-overlapping options exist, error
+        if (!options.equals(Arrays.asList(courseOptions))) {
+            throw new IllegalStateException("No valid non-overlapping schedules could be generated for course: " + c.getDisplayName());
+        }
+        return options;
+    }
+
+    private static ScheduleList combineParallel(ScheduleList options, int course, ForkJoinPool pool) {
+        long pairs = (long) options.size() * options.extend(course).optionCount();
+        int chunks = (int) ((pairs + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        ScheduleList.Builder merged = options.extend(course);
+        if (chunks == 0) {
+            return merged.build();
+        }
+        ScheduleList.Builder[] buffers = new ScheduleList.Builder[chunks];
+        pool.invoke(new CombineTask(options, course, buffers, 0, chunks));
+
+        for (ScheduleList.Builder buffer : buffers) {
+            merged.addAll(buffer);
+        }
+        return merged.build();
+    }
+
+    /**
+     * Combines a range of chunks of the (course option, existing schedule) pairs, in
+     * generation order, each chunk into its own buffer.
+     */
+    private static final class CombineTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final ScheduleList existing;
+        private final int course;
+        private final ScheduleList.Builder[] buffers;
+        private final int from;
+        private final int to;
+
+        CombineTask(ScheduleList existing, int course, ScheduleList.Builder[] buffers, int from, int to) {
+            this.existing = existing;
+            this.course = course;
+            this.buffers = buffers;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > 1) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new CombineTask(existing, course, buffers, from, mid),
+                          new CombineTask(existing, course, buffers, mid, to));
+                return;
+            }
+
+            ScheduleList.Builder buffer = existing.extend(course);
+            long pairs = (long) existing.size() * buffer.optionCount();
+            long start = (long) from * CHUNK_SIZE;
+            long end = Math.min(pairs, start + CHUNK_SIZE);
+            for (long pair = start; pair < end; pair++) {
+                int op = (int) (pair / existing.size());
+                int curr = (int) (pair % existing.size());
+                if (!buffer.overlaps(curr, op)) {
+                    buffer.add(curr, op);
+                }
+            }
+            buffers[from] = buffer;
+        }
+    }
+}
@@ -0,0 +1,235 @@
+package logic;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+import model.SlotList;
+import model.TimeSlot;
+
+/**
+ * Schedules built by {@link ScheduleGenerator}, stored as a persistent list of option
+ * indices that shares prefixes.
+ *
+ * <p>Each combination step adds a level holding, for every schedule, the index of the
+ * schedule it extends in the previous level and the index of the option chosen for the
+ * course. A schedule therefore costs two ints per course instead of a copy of all its time
+ * slots, plus its occupancy masks for the last level only, which is all scoring needs
+ * (see {@link #mask}, {@link #lectureMask} and {@link #hasNonLecture}).
+ *
+ * <p>{@link #get} builds the {@link SlotList} of one schedule on demand, for display; it is
+ * not kept, so a schedule is only materialized while it is used.
+ */
+public final class ScheduleList extends AbstractList<List<TimeSlot>> implements RandomAccess {
+
+    /** Options of every course, by course index; shared with the generator that fills it. */
+    private final SlotList[][] options;
+    private final Level last;
+    private final long[] masks;
+    private final long[] lectureMasks;
+    private final boolean[] nonLecture;
+    private final int size;
+
+    private ScheduleList(SlotList[][] options, Level last, long[] masks, long[] lectureMasks,
+                         boolean[] nonLecture, int size) {
+        this.options = options;
+        this.last = last;
+        this.masks = masks;
+        this.lectureMasks = lectureMasks;
+        this.nonLecture = nonLecture;
+        this.size = size;
+    }
+
+    /** Returns the empty list of schedules over the given options. */
+    static ScheduleList empty(SlotList[][] options) {
+        return new ScheduleList(options, null, new long[0], new long[0], new boolean[0], 0);
+    }
+
+    /**
+     * Returns one schedule per option of a course, each made of that option alone.
+     *
+     * @param options the options of every course
+     * @param course  the course
+     */
+    static ScheduleList of(SlotList[][] options, int course) {
+        SlotList[] courseOptions = options[course];
+        int n = courseOptions.length;
+        int[] parents = new int[n];
+        int[] choices = new int[n];
+        long[] masks = new long[n];
+        long[] lectureMasks = new long[n];
+        boolean[] nonLecture = new boolean[n];
+        for (int o = 0; o < n; o++) {
+            parents[o] = -1;
+            choices[o] = o;
+            masks[o] = courseOptions[o].getMask();
+            lectureMasks[o] = courseOptions[o].getLectureMask();
+            nonLecture[o] = courseOptions[o].hasNonLecture();
+        }
+        return new ScheduleList(options, new Level(course, null, parents, choices), masks, lectureMasks, nonLecture, n);
+    }
+
+    /**
+     * Starts the next level of schedules, each extending one of these with an option of the course.
+     *
+     * @param course the course whose options are added
+     * @return an empty builder
+     */
+    Builder extend(int course) {
+        return new Builder(this, course);
+    }
+
+    /** Occupancy of all slots of a schedule. */
+    public long mask(int index) {
+        checkIndex(index);
+        return masks[index];
+    }
+
+    /** Occupancy of the lecture slots of a schedule. */
+    public long lectureMask(int index) {
+        checkIndex(index);
+        return lectureMasks[index];
+    }
+
+    /** Whether a schedule contains any lab, tutorial or untyped slot. */
+    public boolean hasNonLecture(int index) {
+        checkIndex(index);
+        return nonLecture[index];
+    }
+
+    /**
+     * Builds the time slots of a schedule, in course order.
+     *
+     * @param index the schedule
+     * @return a new SlotList, not retained by this list
+     */
+    @Override
+    public SlotList get(int index) {
+        checkIndex(index);
+        int depth = 0;
+        for (Level level = last; level != null; level = level.previous) {
+            depth++;
+        }
+        // Walk from the last course back to the first, then concatenate in course order
+        SlotList[] chosen = new SlotList[depth];
+        int i = index;
+        int d = depth;
+        for (Level level = last; level != null; level = level.previous) {
+            chosen[--d] = options[level.course][level.choices[i]];
+            i = level.parents[i];
+        }
+        SlotList schedule = SlotList.empty();
+        for (SlotList option : chosen) {
+            schedule = SlotList.concat(schedule, option);
+        }
+        return schedule;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    /** One combination step: for each schedule, the schedule it extends and the option it adds. */
+    private static final class Level {
+        final int course;
+        final Level previous;
+        final int[] parents;
+        final int[] choices;
+
+        Level(int course, Level previous, int[] parents, int[] choices) {
+            this.course = course;
+            this.previous = previous;
+            this.parents = parents;
+            this.choices = choices;
+        }
+    }
+
+    /**
+     * Collects the schedules of the next level, in the order they are added.
+     *
+     * <p>Not thread-safe; parallel generation fills one builder per chunk and merges them
+     * in order with {@link #addAll}.
+     */
+    static final class Builder {
+        private final ScheduleList base;
+        private final int course;
+        private final SlotList[] courseOptions;
+        private int[] parents = new int[16];
+        private int[] choices = new int[16];
+        private long[] masks = new long[16];
+        private long[] lectureMasks = new long[16];
+        private boolean[] nonLecture = new boolean[16];
+        private int size;
+
+        private Builder(ScheduleList base, int course) {
+            this.base = base;
+            this.course = course;
+            this.courseOptions = base.options[course];
+        }
+
+        /** Whether the option of the course overlaps the schedule of the base list. */
+        boolean overlaps(int schedule, int option) {
+            return (base.masks[schedule] & courseOptions[option].getMask()) != 0L;
+        }
+
+        /** Adds the schedule extending {@code schedule} of the base list with {@code option} of the course. */
+        void add(int schedule, int option) {
+            grow(size + 1);
+            SlotList added = courseOptions[option];
+            parents[size] = schedule;
+            choices[size] = option;
+            masks[size] = base.masks[schedule] | added.getMask();
+            lectureMasks[size] = base.lectureMasks[schedule] | added.getLectureMask();
+            nonLecture[size] = base.nonLecture[schedule] || added.hasNonLecture();
+            size++;
+        }
+
+        /** Appends every schedule of another builder of the same level. */
+        void addAll(Builder other) {
+            grow(size + other.size);
+            System.arraycopy(other.parents, 0, parents, size, other.size);
+            System.arraycopy(other.choices, 0, choices, size, other.size);
+            System.arraycopy(other.masks, 0, masks, size, other.size);
+            System.arraycopy(other.lectureMasks, 0, lectureMasks, size, other.size);
+            System.arraycopy(other.nonLecture, 0, nonLecture, size, other.size);
+            size += other.size;
+        }
+
+        int size() {
+            return size;
+        }
+
+        /** Number of options of the course being added. */
+        int optionCount() {
+            return courseOptions.length;
+        }
+
+        /** Returns the schedules added so far; the base list's masks are no longer needed by them. */
+        ScheduleList build() {
+            Level level = new Level(course, base.last,
+                    Arrays.copyOf(parents, size), Arrays.copyOf(choices, size));
+            return new ScheduleList(base.options, level, Arrays.copyOf(masks, size),
+                    Arrays.copyOf(lectureMasks, size), Arrays.copyOf(nonLecture, size), size);
+        }
+
+        private void grow(int capacity) {
+            if (capacity <= parents.length) {
+                return;
+            }
+            int length = Math.max(capacity, parents.length * 2);
+            parents = Arrays.copyOf(parents, length);
+            choices = Arrays.copyOf(choices, length);
+            masks = Arrays.copyOf(masks, length);
+            lectureMasks = Arrays.copyOf(lectureMasks, length);
+            nonLecture = Arrays.copyOf(nonLecture, length);
+        }
+    }
+}
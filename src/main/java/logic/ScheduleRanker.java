@@ -0,0 +1,207 @@
+package logic;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+import logic.config.Config;
+import metrics.Metrics;
+import metrics.Trace;
+import model.SlotList;
+import model.TimeSlot;
+
+/**
+ * Ranks schedules by score, best first.
+ *
+ * <p>Each schedule is scored exactly once into a primitive array, on all cores for large
+ * inputs. Each score is then packed with its schedule's index into one {@code long} key
+ * (see {@link #key}) so that ranking is a primitive sort, {@link Arrays#parallelSort} for
+ * large inputs, or a parallel selection of the best keys when only the top K are needed.
+ * Keys are unique and ordered by score, then index, so schedules with equal scores keep
+ * their generation order whatever the number of cores.
+ *
+ * <p>Schedules from a {@link ScheduleList} are scored from their stored masks, and only
+ * built when the ranked list is read.
+ */
+public class ScheduleRanker {
+
+    /** Below this many schedules, scoring and sorting stay on the calling thread. */
+    private static final int PARALLEL_THRESHOLD = 1 << 13;
+
+    /** Number of scores one task of {@link #top} selects from. */
+    private static final int SELECT_CHUNK = 1 << 16;
+
+    /**
+     * Scores every schedule once.
+     *
+     * <p>The schedules are scored in parallel unless there are few of them, they are not
+     * indexable in constant time, or a score breakdown is traced (whose events stay in order).
+     *
+     * @param schedules the schedules
+     * @param config    scoring configuration
+     * @param verbose   whether to trace each score breakdown, if a {@link metrics.Trace} is running
+     * @return the score of each schedule, by index
+     */
+    public static int[] score(List<List<TimeSlot>> schedules, Config config, boolean verbose) {
+        long start = Metrics.start();
+        int[] scores = new int[schedules.size()];
+        OccupancyScorer scorer = OccupancyScorer.forConfig(config);
+        if (verbose && Trace.on(Metrics.Phase.SCORE)) {
+            int i = 0;
+            for (List<TimeSlot> schedule : schedules) {
+                scores[i++] = ScoringEngine.apply(schedule, config, true);
+            }
+        } else if (schedules instanceof ScheduleList) {
+            // Straight from the stored masks, without building any schedule
+            ScheduleList list = (ScheduleList) schedules;
+            fill(scores, i -> scorer.score(list.mask(i), list.lectureMask(i), list.hasNonLecture(i)));
+        } else if (schedules instanceof RandomAccess) {
+            fill(scores, i -> scorer.score(SlotList.of(schedules.get(i))));
+        } else {
+            int i = 0;
+            for (List<TimeSlot> schedule : schedules) {
+                scores[i++] = scorer.score(SlotList.of(schedule));
+            }
+        }
+        Metrics.stop(Metrics.Phase.SCORE, start);
+        Metrics.addScoreEvaluations(scores.length);
+        return scores;
+    }
+
+    /**
+     * Returns the indices of the scores from highest to lowest score, equal scores in index order.
+     *
+     * @param scores the scores
+     * @return the ranked indices
+     */
+    public static int[] order(int[] scores) {
+        long start = Metrics.start();
+        int n = scores.length;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            keys[i] = key(scores[i], i);
+        }
+        if (n >= PARALLEL_THRESHOLD) {
+            Arrays.parallelSort(keys);
+        } else {
+            Arrays.sort(keys);
+        }
+        int[] order = indices(keys, n);
+        Metrics.stop(Metrics.Phase.SORT, start);
+        return order;
+    }
+
+    /**
+     * Returns the first K indices of {@link #order}, without sorting the others.
+     *
+     * <p>Each chunk of the scores keeps its K best keys in a bounded heap, in parallel, and
+     * only those candidates are sorted. When K is a large part of the input, a full sort is
+     * cheaper and used instead.
+     *
+     * @param scores the scores
+     * @param k      number of indices to return
+     * @return up to K indices, from highest to lowest score, equal scores in index order
+     */
+    public static int[] top(int[] scores, int k) {
+        int n = scores.length;
+        if (k <= 0) {
+            return new int[0];
+        }
+        if ((long) k * 8 >= n) {
+            int[] order = order(scores);
+            return k >= n ? order : Arrays.copyOf(order, k);
+        }
+
+        long start = Metrics.start();
+        int chunks = (n + SELECT_CHUNK - 1) / SELECT_CHUNK;
+        IntStream range = IntStream.range(0, chunks);
+        long[] candidates = (chunks > 1 ? range.parallel() : range)
+                .mapToObj(c -> select(scores, c * SELECT_CHUNK, Math.min(n, (c + 1) * SELECT_CHUNK), k))
+                .flatMapToLong(Arrays::stream)
+                .toArray();
+        Arrays.sort(candidates);
+        int[] top = indices(candidates, Math.min(k, candidates.length));
+        Metrics.stop(Metrics.Phase.SORT, start);
+        return top;
+    }
+
+    /**
+     * Ranks schedules by score, best first.
+     *
+     * @param schedules the schedules, in generation order
+     * @param config    scoring configuration
+     * @param verbose   whether to trace each score breakdown, if a {@link metrics.Trace} is running
+     * @return a view of the schedules, ranked; each is fetched from {@code schedules} when accessed
+     */
+    public static List<List<TimeSlot>> rank(List<List<TimeSlot>> schedules, Config config, boolean verbose) {
+        int[] order = order(score(schedules, config, verbose));
+        return new AbstractList<>() {
+            @Override
+            public List<TimeSlot> get(int index) {
+                return schedules.get(order[index]);
+            }
+
+            @Override
+            public int size() {
+                return order.length;
+            }
+        };
+    }
+
+    /**
+     * Packs a score and an index into a key that sorts ascending by descending score, then
+     * ascending index. {@code ~score} keeps the whole int range without overflow.
+     */
+    private static long key(int score, int index) {
+        return ((long) ~score << 32) | index;
+    }
+
+    private static int[] indices(long[] keys, int count) {
+        int[] indices = new int[count];
+        for (int i = 0; i < count; i++) {
+            indices[i] = (int) keys[i];
+        }
+        return indices;
+    }
+
+    private static void fill(int[] scores, IntUnaryOperator score) {
+        IntStream range = IntStream.range(0, scores.length);
+        (scores.length >= PARALLEL_THRESHOLD ? range.parallel() : range).forEach(i -> scores[i] = score.applyAsInt(i));
+    }
+
+    /** The K smallest keys of the scores in {@code [from, to)}, through a max-heap of the current K best. */
+    private static long[] select(int[] scores, int from, int to, int k) {
+        long[] heap = new long[Math.min(k, to - from)];
+        int size = 0;
+        for (int i = from; i < to; i++) {
+            long key = key(scores[i], i);
+            if (size < heap.length) {
+                // Sift up
+                int child = size++;
+                while (child > 0) {
+                    int parent = (child - 1) >>> 1;
+                    if (heap[parent] >= key) break;
+                    heap[child] = heap[parent];
+                    child = parent;
+                }
+                heap[child] = key;
+            } else if (key < heap[0]) {
+                // Replace the worst kept key and sift down
+                int parent = 0;
+                while (true) {
+                    int child = 2 * parent + 1;
+                    if (child >= size) break;
+                    if (child + 1 < size && heap[child + 1] > heap[child]) child++;
+                    if (heap[child] <= key) break;
+                    heap[parent] = heap[child];
+                    parent = child;
+                }
+                heap[parent] = key;
+            }
+        }
+        return heap;
+    }
+}
@@ -0,0 +1,161 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+import logic.config.Config;
+import metrics.Metrics;
+import model.Course;
+
+/**
+ * Branch-and-bound search for the K best schedules.
+ *
+ * <p>Walks the courses depth-first instead of building the full cartesian product of their
+ * options. Every partial schedule gets an optimistic bound on the score of its completions
+ * (see {@link OptionTable#upperBound}), and branches whose bound cannot beat the current K-th
+ * best schedule are skipped.
+ *
+ * <p>Courses are assigned from last to first, so complete schedules are reached in the same
+ * order {@code Main} generates them. Ties are therefore broken exactly like the stable sort
+ * over the full list, and the result equals the first K entries of that ranking.
+ */
+public class ScheduleSearch {
+
+    /** Worst retained candidate first: lowest score, then latest in generation order. */
+    private static final Comparator<Candidate> WORST_FIRST =
+            Comparator.comparingInt((Candidate c) -> c.score).thenComparingLong(c -> -c.sequence);
+
+    private final OptionTable table;
+    private final OccupancyScorer scorer;
+
+    private PriorityQueue<Candidate> best;
+    private int limit;
+    private int[] choice;
+    private long sequence;
+    private long prunedBranches;
+    private long overlapChecks;
+    private long overlapping;
+
+    public ScheduleSearch(OptionTable table, OccupancyScorer scorer) {
+        this.table = table;
+        this.scorer = scorer;
+    }
+
+    /**
+     * Finds the K best schedules for the given courses, after dropping options that
+     * cannot be part of any valid schedule (see {@link ArcConsistency}).
+     *
+     * @param courses the courses to schedule
+     * @param k       number of schedules to return
+     * @param config  scoring configuration
+     * @return up to K schedules, best first
+     */
+    public static List<RankedSchedule> topK(List<Course> courses, int k, Config config) {
+        return topK(new OptionTable(courses), k, OccupancyScorer.forConfig(config));
+    }
+
+    /**
+     * Finds the K best schedules among already expanded options, after dropping options
+     * that cannot be part of any valid schedule (see {@link ArcConsistency}).
+     *
+     * @param table  the options of the courses to schedule
+     * @param k      number of schedules to return
+     * @param scorer the scorer
+     * @return up to K schedules, best first
+     */
+    public static List<RankedSchedule> topK(OptionTable table, int k, OccupancyScorer scorer) {
+        return new ScheduleSearch(ArcConsistency.reduce(table).getTable(), scorer).topK(k);
+    }
+
+    /**
+     * Finds the K best schedules.
+     *
+     * @param k number of schedules to return
+     * @return up to K schedules, best first
+     */
+    public List<RankedSchedule> topK(int k) {
+        long start = Metrics.start();
+        best = new PriorityQueue<>(WORST_FIRST);
+        limit = k;
+        choice = new int[table.courseCount()];
+        sequence = 0;
+        prunedBranches = 0;
+        overlapChecks = 0;
+        overlapping = 0;
+
+        if (k > 0 && table.courseCount() > 0 && !table.hasEmptyCourse()) {
+            search(table.courseCount() - 1, 0L, 0L, false);
+        }
+        Metrics.stop(Metrics.Phase.COMBINE, start);
+        Metrics.addOverlapChecks(overlapChecks);
+        Metrics.addCombinations(sequence, overlapping + prunedBranches);
+        Metrics.addScoreEvaluations(sequence);
+
+        List<Candidate> found = new ArrayList<>(best);
+        found.sort(WORST_FIRST.reversed());
+        List<RankedSchedule> ranked = new ArrayList<>(found.size());
+        for (Candidate c : found) {
+            ranked.add(new RankedSchedule(table.schedule(c.choice), c.score, c.choice));
+        }
+        best = null;
+        return ranked;
+    }
+
+    /** Number of branches skipped by the last search because of their bound. */
+    public long getPrunedBranches() {
+        return prunedBranches;
+    }
+
+    private void search(int course, long mask, long lectureMask, boolean hasNonLecture) {
+        int count = table.optionCount(course);
+        overlapChecks += count;
+        for (int o = 0; o < count; o++) {
+            long optionMask = table.mask(course, o);
+            if ((optionMask & mask) != 0L) {
+                overlapping++;
+                continue;
+            }
+
+            choice[course] = o;
+            long nextMask = mask | optionMask;
+            long nextLectureMask = lectureMask | table.lectureMask(course, o);
+            boolean nextNonLecture = hasNonLecture || table.hasNonLecture(course, o);
+
+            if (course == 0) {
+                offer(scorer.score(nextMask, nextLectureMask, nextNonLecture));
+            } else {
+                int bound = table.upperBound(scorer, course, nextMask, nextLectureMask, nextNonLecture);
+                // Later schedules lose ties, so a bound equal to the K-th score cannot help
+                if (bound == Integer.MIN_VALUE || (best.size() == limit && bound <= best.peek().score)) {
+                    prunedBranches++;
+                    continue;
+                }
+                search(course - 1, nextMask, nextLectureMask, nextNonLecture);
+            }
+        }
+    }
+
+    private void offer(int score) {
+        long seq = sequence++;
+        if (best.size() < limit) {
+            best.add(new Candidate(choice.clone(), score, seq));
+        } else if (score > best.peek().score) {
+            best.poll();
+            best.add(new Candidate(choice.clone(), score, seq));
+        }
+    }
+
+    private static final class Candidate {
+        final int[] choice;
+        final int score;
+        final long sequence;
+
+        Candidate(int[] choice, int score, long sequence) {
+            this.choice = choice;
+            this.score = score;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import logic.config.Config;
+import metrics.Metrics;
+import model.Course;
+import model.CourseKey;
+import model.SlotList;
+import model.TimeSlot;
+
+/**
+ * Keeps the intermediate results of scheduling a list of courses so that small edits do not
+ * start over.
+ *
+ * <p>The session stores every level of the combination built by {@link ScheduleGenerator}:
+ * level {@code k} holds the valid combinations of the first {@code k} courses, in generation
+ * order, each as a link to its parent combination plus the option added. On top of the last
+ * level it keeps, per schedule, the weight-independent counts every score is made of (days
+ * off, gaps, early and late days, for all components and for lectures only). Custom
+ * {@link logic.rules.ScoringRule}s are not counts; with rules, scores come from the stored
+ * occupancy of each schedule instead, still without re-enumerating.
+ *
+ * <ul>
+ *   <li>Adding a course extends the last level by one.</li>
+ *   <li>Removing a course keeps the levels before it and only re-extends them with the
+ *       courses after it. Removing the last course costs nothing.</li>
+ *   <li>Changing the configuration only re-weights the stored counts. Nothing is
+ *       re-enumerated.</li>
+ * </ul>
+ *
+ * <p>Rankings equal {@code Main}'s for the same courses and configuration, ties included,
+ * whenever {@code Main} finds schedules at all.
+ */
+public class ScheduleSession {
+
+    private final List<Course> courses = new ArrayList<>();
+    private final List<SlotList[]> options = new ArrayList<>();
+    /** levels.get(k): valid combinations of the first k courses. Level 0 is the empty schedule. */
+    private final List<Level> levels = new ArrayList<>();
+
+    private Config config;
+    /** Packed score counts of every complete schedule (see {@link #countAll}), or null until needed. */
+    private long[] counts;
+    /** Scores of every complete schedule under the configuration, or null until needed. */
+    private int[] scores;
+    private int[] order;
+
+    public ScheduleSession(Config config) {
+        this.config = config;
+        levels.add(Level.root());
+    }
+
+    public List<Course> getCourses() {
+        return Collections.unmodifiableList(courses);
+    }
+
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Adds a course after the current ones, extending the existing combinations with its options.
+     *
+     * @param course the course
+     */
+    public void addCourse(Course course) {
+        courses.add(course);
+        options.add(OptionTable.expand(course));
+        levels.add(extend(levels.get(levels.size() - 1), options.get(options.size() - 1)));
+        invalidate();
+    }
+
+    /**
+     * Removes a course. Combinations of the courses before it are kept and extended with the
+     * courses after it again.
+     *
+     * @param key the course
+     * @return whether the session contained the course
+     */
+    public boolean removeCourse(CourseKey key) {
+        for (int i = 0; i < courses.size(); i++) {
+            if (CourseKey.of(courses.get(i)).equals(key)) {
+                removeCourse(i);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes the course at an index.
+     *
+     * @param index position of the course, in the order courses were added
+     */
+    public void removeCourse(int index) {
+        courses.remove(index);
+        options.remove(index);
+        // Level k + 1 and beyond contain the removed course
+        levels.subList(index + 1, levels.size()).clear();
+        for (int c = index; c < options.size(); c++) {
+            levels.add(extend(levels.get(c), options.get(c)));
+        }
+        invalidate();
+    }
+
+    /**
+     * Changes the scoring configuration. Only re-weights the stored counts.
+     *
+     * @param config the new configuration
+     */
+    public void setConfig(Config config) {
+        this.config = config;
+        scores = null;
+        order = null;
+    }
+
+    private void invalidate() {
+        counts = null;
+        scores = null;
+        order = null;
+    }
+
+    /** Number of valid schedules for the current courses. */
+    public int size() {
+        return courses.isEmpty() ? 0 : last().size;
+    }
+
+    /**
+     * Returns the best schedules.
+     *
+     * @param k number of schedules to return
+     * @return up to K schedules, best first, ties in generation order
+     */
+    public List<RankedSchedule> topK(int k) {
+        int[] ranking = ranking(k);
+        List<RankedSchedule> ranked = new ArrayList<>(Math.min(k, ranking.length));
+        for (int i = 0; i < ranking.length && i < k; i++) {
+            int[] choice = choice(ranking[i]);
+            ranked.add(new RankedSchedule(schedule(choice), scores[ranking[i]], choice));
+        }
+        return ranked;
+    }
+
+    /** Indices of at least the K best complete schedules, best first. */
+    private int[] ranking(int k) {
+        if (courses.isEmpty()) {
+            return new int[0];
+        }
+        if (order != null) {
+            return order;
+        }
+        // Only a full ranking is worth keeping for later calls
+        int[] top = ScheduleRanker.top(scores(), k);
+        if (top.length == scores.length) {
+            order = top;
+        }
+        return top;
+    }
+
+    private int[] scores() {
+        if (scores == null) {
+            long start = Metrics.start();
+            if (!config.getRules().isEmpty()) {
+                scores = scoreOccupancy();
+            } else {
+                if (counts == null) {
+                    counts = countAll();
+                }
+                scores = new int[counts.length];
+                for (int i = 0; i < counts.length; i++) {
+                    scores[i] = score(counts[i]);
+                }
+            }
+            Metrics.stop(Metrics.Phase.SCORE, start);
+            Metrics.addScoreEvaluations(scores.length);
+        }
+        return scores;
+    }
+
+    private int[] scoreOccupancy() {
+        OccupancyScorer scorer = OccupancyScorer.forConfig(config);
+        Level level = last();
+        int[] scored = new int[level.size];
+        for (int i = 0; i < level.size; i++) {
+            scored[i] = scorer.score(level.mask[i], level.lectureMask[i], level.nonLecture[i]);
+        }
+        return scored;
+    }
+
+    /** Extends every combination of a level with every option of the next course it does not overlap. */
+    private static Level extend(Level previous, SlotList[] courseOptions) {
+        long start = Metrics.start();
+        Level next = new Level(previous.size);
+        // Course option outside, existing combination inside: ScheduleGenerator's order
+        for (int o = 0; o < courseOptions.length; o++) {
+            SlotList option = courseOptions[o];
+            long optionMask = option.getMask();
+            for (int p = 0; p < previous.size; p++) {
+                if ((previous.mask[p] & optionMask) == 0L) {
+                    next.add(p, o, previous.mask[p] | optionMask,
+                            previous.lectureMask[p] | option.getLectureMask(),
+                            previous.nonLecture[p] || option.hasNonLecture());
+                }
+            }
+        }
+        long pairs = (long) previous.size * courseOptions.length;
+        Metrics.stop(Metrics.Phase.COMBINE, start);
+        Metrics.addOverlapChecks(pairs);
+        Metrics.addCombinations(next.size, pairs - next.size);
+        return next;
+    }
+
+    private Level last() {
+        return levels.get(levels.size() - 1);
+    }
+
+    /** Option index per course of one complete schedule. */
+    private int[] choice(int index) {
+        int[] choice = new int[courses.size()];
+        for (int c = courses.size() - 1; c >= 0; c--) {
+            Level level = levels.get(c + 1);
+            choice[c] = level.option[index];
+            index = level.parent[index];
+        }
+        return choice;
+    }
+
+    private SlotList schedule(int[] choice) {
+        SlotList schedule = SlotList.empty();
+        for (int c = 0; c < choice.length; c++) {
+            schedule = SlotList.concat(schedule, options.get(c)[choice[c]]);
+        }
+        return schedule;
+    }
+
+    // Packed counts: days off, gaps and the four early/late counts of all components, then days
+    // off and early/late counts of the lectures alone (the lecture-only round has no gaps)
+    private static final int DAYS_OFF = 0;
+    private static final int GAPS = 1;
+    /** Days whose first class is at 8:30, at 10:00, whose last is at 19:00, at 20:30. */
+    private static final int TIMES = 2;
+    private static final int LECTURE_DAYS_OFF = 6;
+    private static final int LECTURE_TIMES = 7;
+    /** Bit offset of each field; gaps (up to 35) take 6 bits, every other count (up to 5) takes 4. */
+    private static final int[] SHIFT = {0, 4, 10, 14, 18, 22, 26, 30, 34, 38, 42};
+    private static final int NON_LECTURE_BIT = 46;
+
+    private long[] countAll() {
+        Level level = last();
+        long[] packed = new long[level.size];
+        int[] all = new int[6];
+        int[] lectures = new int[6];
+        for (int i = 0; i < level.size; i++) {
+            count(level.mask[i], all);
+            count(level.lectureMask[i], lectures);
+            long p = (long) all[DAYS_OFF] << SHIFT[DAYS_OFF] | (long) all[GAPS] << SHIFT[GAPS]
+                    | (long) lectures[DAYS_OFF] << SHIFT[LECTURE_DAYS_OFF];
+            for (int t = 0; t < 4; t++) {
+                p |= (long) all[TIMES + t] << SHIFT[TIMES + t] | (long) lectures[TIMES + t] << SHIFT[LECTURE_TIMES + t];
+            }
+            packed[i] = level.nonLecture[i] ? p | 1L << NON_LECTURE_BIT : p;
+        }
+        return packed;
+    }
+
+    /** Counts days off, gaps and early/late days of an occupancy. */
+    private static void count(long mask, int[] counts) {
+        Arrays.fill(counts, 0);
+        for (int day = 0; day < TimeSlot.DAYS; day++) {
+            int bits = TimeSlot.dayBits(mask, day);
+            if (bits == 0) {
+                counts[DAYS_OFF]++;
+                continue;
+            }
+            int first = Integer.numberOfTrailingZeros(bits);
+            int last = 31 - Integer.numberOfLeadingZeros(bits);
+            counts[GAPS] += last - first + 1 - Integer.bitCount(bits);
+            if ((bits & 1) != 0) {
+                counts[TIMES]++;
+            } else if ((bits & 1 << 1) != 0) {
+                counts[TIMES + 1]++;
+            }
+            if ((bits & 1 << 8) != 0) {
+                counts[TIMES + 3]++;
+            } else if ((bits & 1 << 7) != 0) {
+                counts[TIMES + 2]++;
+            }
+        }
+    }
+
+    private static int field(long packed, int field) {
+        return (int) (packed >>> SHIFT[field]) & (field == GAPS ? 0x3F : 0xF);
+    }
+
+    /** Weighs packed counts like {@link OccupancyScorer#score}. */
+    private int score(long packed) {
+        int score = field(packed, DAYS_OFF) * config.getDayOffReward()
+                + field(packed, GAPS) * config.getGapPunishment();
+        for (int t = 0; t < 4; t++) {
+            score += field(packed, TIMES + t) * config.getTimePunishment(t);
+        }
+        if (!config.getDoLectureOnlyRound() || (packed >>> NON_LECTURE_BIT & 1L) == 0L) {
+            return score;
+        }
+
+        int lectureOnlyScore = field(packed, LECTURE_DAYS_OFF) * config.getDayOffReward();
+        for (int t = 0; t < 4; t++) {
+            lectureOnlyScore += field(packed, LECTURE_TIMES + t) * config.getTimePunishment(t);
+        }
+        return (int) ((1 - config.getLectureOnlyWeight()) * score
+                    + config.getLectureOnlyWeight() * lectureOnlyScore);
+    }
+
+    /** Combinations of a prefix of the courses, in generation order, as growable primitive arrays. */
+    private static final class Level {
+        int size;
+        int[] parent;
+        int[] option;
+        long[] mask;
+        long[] lectureMask;
+        boolean[] nonLecture;
+
+        Level(int capacity) {
+            capacity = Math.max(capacity, 4);
+            parent = new int[capacity];
+            option = new int[capacity];
+            mask = new long[capacity];
+            lectureMask = new long[capacity];
+            nonLecture = new boolean[capacity];
+        }
+
+        static Level root() {
+            Level root = new Level(1);
+            root.add(-1, -1, 0L, 0L, false);
+            return root;
+        }
+
+        void add(int parentIndex, int optionIndex, long m, long lm, boolean nl) {
+            if (size == parent.length) {
+                int capacity = size * 2;
+                parent = Arrays.copyOf(parent, capacity);
+                option = Arrays.copyOf(option, capacity);
+                mask = Arrays.copyOf(mask, capacity);
+                lectureMask = Arrays.copyOf(lectureMask, capacity);
+                nonLecture = Arrays.copyOf(nonLecture, capacity);
+            }
+            parent[size] = parentIndex;
+            option[size] = optionIndex;
+            mask[size] = m;
+            lectureMask[size] = lm;
+            nonLecture[size] = nl;
+            size++;
+        }
+    }
+}
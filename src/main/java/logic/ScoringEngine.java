@@ -5,9 +5,12 @@ import java.util.List;
 
 import logic.config.Config;
 import logic.config.ConfigLoader;
+import logic.rules.ScoringRule;
+import metrics.Metrics;
+import metrics.Trace;
 import model.Component;
+import model.SlotList;
 import model.TimeSlot;
-import output.Output;
 
 /**
  * ScoringEngine evaluates schedules based on configurable rules.
@@ -18,11 +21,12 @@ import output.Output;
  *   <li><b>Gaps between classes</b>: Fewer gaps = higher score (configurable penalty per gap).</li>
  *   <li><b>Early/Late classes</b>: Configurable penalties based on time.</li>
  *   <li><b>Lecture-only scoring</b>: Optionally re-rank using only lectures and average the results.</li>
+ *   <li><b>Custom rules</b>: Points of every {@link ScoringRule} in the config, day by day.</li>
  *   <li><b>Labs/Tutorials</b>: Can be ignored in scoring if disabled in config.</li>
  * </ul>
  *
- * All weights and penalties are loaded from {@code config.json}.
- * Output is controlled by {@code verbose}.
+ * All weights and penalties are loaded from {@code config.json}, once (see {@link ConfigLoader#get()}).
+ * With {@code verbose}, the points of each factor are traced (see {@link Trace}).
  */
 public class ScoringEngine {
 
@@ -32,16 +36,12 @@ public class ScoringEngine {
      * @param schedule   The schedule (list of {@link TimeSlot}).
      * @param punishGap  Whether to apply gap penalties.
      * @param config     Configurable weights and penalties.
+     * @param trace      Whether to trace the points of each factor (see {@link Trace}).
      * @return Score (higher = better).
      */
-    private static int score(List<TimeSlot> schedule, boolean punishGap, Config config, boolean verbose) {
+    static int score(List<TimeSlot> schedule, boolean punishGap, Config config, boolean trace) {
         int score = 0;
 
-        if (verbose) {
-            System.out.println("\n--- Scoring Schedule ---");
-            Output.displaySchedule(schedule);
-        }
-
         // --- Build grid (days x timeslots) ---
         TimeSlot[][] grid = new TimeSlot[5][9];
         for (TimeSlot slot : schedule) {
@@ -64,13 +64,11 @@ public class ScoringEngine {
             if (hasClass) daysWithClasses++;
         }
         int daysOff = 5 - daysWithClasses;
-        int pointsDaysOff = daysOff * config.dayOffReward;
+        int pointsDaysOff = daysOff * config.getDayOffReward();
         score += pointsDaysOff;
-        if (verbose) {
-            System.out.println("Days off: " + daysOff + ", points: +" + pointsDaysOff);
-        }
 
         // --- Factor 2: Gaps ---
+        int pointsGaps = 0;
         if (punishGap) {
             int gap = 0;
             for (int day = 0; day < 5; day++) {
@@ -84,45 +82,45 @@ public class ScoringEngine {
                     }
                 }
             }
-            score += gap * config.gapPunishment; // punishment usually negative
-            if (verbose) {
-                System.out.println("Total gaps between classes: " + gap + " -> " 
-                        + (gap * config.gapPunishment) + " points");
-            }
+            pointsGaps = gap * config.getGapPunishment(); // punishment usually negative
+            score += pointsGaps;
         }
 
         // --- Factor 3: Early & Late classes ---
+        int pointsTimes = 0;
         for (int day = 0; day < 5; day++) {
             if (grid[day][0] != null) {
-                score += config.timePunishments[0];
-                if (verbose) {
-                    System.out.println("Early class on day " + day + " at 8:30 -> " 
-                            + config.timePunishments[0] + " points");
-                }
+                pointsTimes += config.getTimePunishment(0);
             } else if (grid[day][1] != null) {
-                score += config.timePunishments[1];
-                if (verbose) {
-                    System.out.println("Early class on day " + day + " at 10:00 -> " 
-                            + config.timePunishments[1] + " points");
-                }
+                pointsTimes += config.getTimePunishment(1);
             }
             if (grid[day][8] != null) {
-                score += config.timePunishments[3];
-                if (verbose) {
-                    System.out.println("Late class on day " + day + " at 20:30 -> " 
-                            + config.timePunishments[3] + " points");
-                }
+                pointsTimes += config.getTimePunishment(3);
             } else if (grid[day][7] != null) {
-                score += config.timePunishments[2];
-                if (verbose) {
-                    System.out.println("Late class on day " + day + " at 19:00 -> " 
-                            + config.timePunishments[2] + " points");
+                pointsTimes += config.getTimePunishment(2);
+            }
+        }
+        score += pointsTimes;
+
+        // --- Custom rules ---
+        int pointsRules = 0;
+        for (ScoringRule rule : config.getRules()) {
+            for (int day = 0; day < 5; day++) {
+                int bits = 0;
+                for (int t = 0; t < 9; t++) {
+                    if (grid[day][t] != null) bits |= 1 << t;
                 }
+                pointsRules += rule.dayScore(bits, !punishGap);
             }
         }
+        score += pointsRules;
+
+        if (trace) {
+            Trace.record(Trace.Event.SCORE, punishGap ? 0 : 1, pointsDaysOff, pointsGaps, pointsTimes, pointsRules, score);
+        }
 
         // --- Factor 4: Lecture-only rerun ---
-        if (config.doLectureOnlyRound) {
+        if (config.getDoLectureOnlyRound()) {
             List<TimeSlot> lecturesOnly = new ArrayList<>();
             boolean hasNonLecture = false;
 
@@ -135,30 +133,38 @@ public class ScoringEngine {
             }
 
             if (!hasNonLecture) {
-                if (verbose) {
-                    System.out.println("No labs/tutorials, skipping lecture-only scoring.");
-                    System.out.println("Total score: " + score);
-                }
                 return score;
             }
 
-            int lectureOnlyScore = score(lecturesOnly, false, config, verbose);
-            score = (int) ((1 - config.lectureOnlyWeight) * score
-                         + config.lectureOnlyWeight * lectureOnlyScore);
-
-            if (verbose) {
-                System.out.println("Lecture-only score: " + lectureOnlyScore);
-                System.out.println("Total score (weighted): " + score);
+            int lectureOnlyScore = score(lecturesOnly, false, config, trace);
+            int total = (int) ((1 - config.getLectureOnlyWeight()) * score
+                             + config.getLectureOnlyWeight() * lectureOnlyScore);
+            if (trace) {
+                Trace.record(Trace.Event.BLEND, score, lectureOnlyScore, total);
             }
+            score = total;
         }
 
         return score;
     }
 
-    /** Apply scoring with default config.json path. */
+    /** Apply scoring with the cached default configuration (see {@link ConfigLoader#get()}). */
     public static int apply(List<TimeSlot> schedule, boolean verbose) {
-        Config config = ConfigLoader.load("src/main/java/logic/config/config.json");
-        return score(schedule, true, config, verbose);
+        return apply(schedule, ConfigLoader.get(), verbose);
+    }
+
+    /**
+     * Apply scoring with the given configuration.
+     *
+     * <p>Unless verbose with a {@link Trace} of the score phase running, the score comes from
+     * the table-driven {@link OccupancyScorer}, which gives the same result without building
+     * a grid. Otherwise the points of each factor are traced.
+     */
+    public static int apply(List<TimeSlot> schedule, Config config, boolean verbose) {
+        if (!verbose || !Trace.on(Metrics.Phase.SCORE)) {
+            return OccupancyScorer.forConfig(config).score(SlotList.of(schedule));
+        }
+        return score(schedule, true, config, true);
     }
 
 }
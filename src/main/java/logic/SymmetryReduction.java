@@ -0,0 +1,188 @@
+package logic;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import model.SlotList;
+
+/**
+ * Groups each course's options into classes that the scorer cannot tell apart.
+ *
+ * <p>Two options of a course are equivalent when they have the same occupancy, the same
+ * lecture occupancy and both do or do not contain a lab or tutorial: they overlap the same
+ * options of other courses and give every schedule the same score. Searching and scoring
+ * over one representative per class, then expanding each ranked class schedule into its
+ * concrete schedules, skips the repeated work for sections that only differ by name.
+ *
+ * <p>Schedules come out ranked by score. Within one class schedule, concrete schedules are
+ * in generation order; between class schedules of equal score, in the generation order of
+ * their representatives.
+ */
+public class SymmetryReduction {
+
+    private final OptionTable table;
+    private final OptionTable classes;
+    /** members[c][k]: indices in the original table of the options in class k of course c. */
+    private final int[][][] members;
+
+    private SymmetryReduction(OptionTable table, OptionTable classes, int[][][] members) {
+        this.table = table;
+        this.classes = classes;
+        this.members = members;
+    }
+
+    /**
+     * Groups the options of every course of a table.
+     *
+     * @param table the expanded options
+     * @return the classes, represented by their first option
+     */
+    public static SymmetryReduction of(OptionTable table) {
+        int n = table.courseCount();
+        BitSet[] representatives = new BitSet[n];
+        int[][][] members = new int[n][][];
+
+        for (int c = 0; c < n; c++) {
+            representatives[c] = new BitSet(table.optionCount(c));
+            Map<Signature, List<Integer>> byClass = new HashMap<>();
+            List<List<Integer>> ordered = new ArrayList<>();
+            for (int o = 0; o < table.optionCount(c); o++) {
+                Signature signature = new Signature(table.mask(c, o), table.lectureMask(c, o), table.hasNonLecture(c, o));
+                List<Integer> group = byClass.get(signature);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    byClass.put(signature, group);
+                    ordered.add(group);
+                    representatives[c].set(o);
+                }
+                group.add(o);
+            }
+
+            // Classes are ordered by their first member, matching the order retain() keeps
+            members[c] = new int[ordered.size()][];
+            for (int k = 0; k < ordered.size(); k++) {
+                members[c][k] = ordered.get(k).stream().mapToInt(Integer::intValue).toArray();
+            }
+        }
+
+        return new SymmetryReduction(table, table.retain(representatives), members);
+    }
+
+    /** One representative option per class, indexed by class. */
+    public OptionTable getClassTable() {
+        return classes;
+    }
+
+    /** Indices in the original table of the options in one class of a course. */
+    public int[] members(int course, int cls) {
+        return members[course][cls].clone();
+    }
+
+    /**
+     * Ranks the class schedules with best-first search, expanding each into its concrete
+     * schedules only as they are requested.
+     *
+     * @param scorer the scorer
+     * @return an iterator over concrete schedules, ranked
+     */
+    public Iterator<RankedSchedule> ranked(OccupancyScorer scorer) {
+        return new Expander(new RankedScheduleIterator(classes, scorer));
+    }
+
+    /**
+     * Describes how many options and combinations the grouping saves.
+     *
+     * @return a multi-line report
+     */
+    public String report() {
+        StringBuilder message = new StringBuilder("Equivalent options (symmetry reduction):");
+        double options = 1;
+        double grouped = 1;
+        for (int c = 0; c < table.courseCount(); c++) {
+            options *= table.optionCount(c);
+            grouped *= classes.optionCount(c);
+            message.append(String.format("%n  %-10s %5d options -> %5d classes",
+                    table.getCourses().get(c).getDisplayName(), table.optionCount(c), classes.optionCount(c)));
+        }
+        message.append(String.format("%n  Combinations: %.3g -> %.3g", options, grouped));
+        return message.toString();
+    }
+
+    /** Expands ranked class schedules into concrete schedules, last course varying slowest. */
+    private final class Expander implements Iterator<RankedSchedule> {
+        private final Iterator<RankedSchedule> classSchedules;
+        private int[] classChoice;
+        private int[] position;
+        private int score;
+        private boolean pending;
+
+        Expander(Iterator<RankedSchedule> classSchedules) {
+            this.classSchedules = classSchedules;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return pending || classSchedules.hasNext();
+        }
+
+        @Override
+        public RankedSchedule next() {
+            if (!pending) {
+                if (!classSchedules.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                RankedSchedule classSchedule = classSchedules.next();
+                classChoice = classSchedule.getChoice();
+                score = classSchedule.getScore();
+                position = new int[classChoice.length];
+                pending = true;
+            }
+
+            int[] choice = new int[classChoice.length];
+            for (int c = 0; c < choice.length; c++) {
+                choice[c] = members[c][classChoice[c]][position[c]];
+            }
+            SlotList schedule = table.schedule(choice);
+
+            // Advance the odometer; the first course varies fastest, as in generation order
+            pending = false;
+            for (int c = 0; c < position.length; c++) {
+                if (++position[c] < members[c][classChoice[c]].length) {
+                    pending = true;
+                    break;
+                }
+                position[c] = 0;
+            }
+            return new RankedSchedule(schedule, score, choice);
+        }
+    }
+
+    private static final class Signature {
+        final long mask;
+        final long lectureMask;
+        final boolean hasNonLecture;
+
+        Signature(long mask, long lectureMask, boolean hasNonLecture) {
+            this.mask = mask;
+            this.lectureMask = lectureMask;
+            this.hasNonLecture = hasNonLecture;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Signature)) return false;
+            Signature other = (Signature) o;
+            return mask == other.mask && lectureMask == other.lectureMask && hasNonLecture == other.hasNonLecture;
+        }
+
+        @Override
+        public int hashCode() {
+            return Long.hashCode(mask * 31 + lectureMask) * 2 + (hasNonLecture ? 1 : 0);
+        }
+    }
+}
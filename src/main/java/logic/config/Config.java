@@ -1,11 +1,120 @@
 package logic.config;
 
+import java.util.Arrays;
+import java.util.List;
 
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+
+import logic.rules.ScoringRule;
+import logic.rules.ScoringRules;
+
+/**
+ * Immutable scoring weights and penalties, usually read from {@code config.json}
+ * through {@link ConfigLoader}, plus optional custom {@link ScoringRule}s listed under
+ * {@code "rules"} (see {@link ScoringRules}).
+ */
 public class Config {
-    public int dayOffReward;
-    public int gapPunishment;
-    public int[] timePunishments;
-    public boolean doLectureOnlyRound;
-    public double lectureOnlyWeight;
-}
+    private final int dayOffReward;
+    private final int gapPunishment;
+    private final int[] timePunishments;
+    private final boolean doLectureOnlyRound;
+    private final double lectureOnlyWeight;
+    /** The rules as given in JSON, kept for equality and serialization. */
+    private final JsonNode ruleSpecs;
+    private final List<ScoringRule> rules;
+
+    /** Configuration without custom rules. */
+    public Config(int dayOffReward, int gapPunishment, int[] timePunishments,
+                  boolean doLectureOnlyRound, double lectureOnlyWeight) {
+        this(dayOffReward, gapPunishment, timePunishments, doLectureOnlyRound, lectureOnlyWeight, null);
+    }
+
+    /** Jackson-compatible constructor */
+    @JsonCreator
+    public Config(
+            @JsonProperty("dayOffReward") int dayOffReward,
+            @JsonProperty("gapPunishment") int gapPunishment,
+            @JsonProperty("timePunishments") int[] timePunishments,
+            @JsonProperty("doLectureOnlyRound") boolean doLectureOnlyRound,
+            @JsonProperty("lectureOnlyWeight") double lectureOnlyWeight,
+            @JsonProperty("rules") JsonNode rules) {
+        if (timePunishments == null || timePunishments.length != 4) {
+            throw new IllegalArgumentException("timePunishments needs 4 values: 8:30, 10:00, 19:00 and 20:30.");
+        }
+        this.dayOffReward = dayOffReward;
+        this.gapPunishment = gapPunishment;
+        this.timePunishments = timePunishments.clone();
+        this.doLectureOnlyRound = doLectureOnlyRound;
+        this.lectureOnlyWeight = lectureOnlyWeight;
+        this.rules = ScoringRules.create(rules);
+        this.ruleSpecs = rules == null || rules.isNull() ? JsonNodeFactory.instance.arrayNode() : rules.deepCopy();
+    }
+
+    public int getDayOffReward() {
+        return dayOffReward;
+    }
+
+    public int getGapPunishment() {
+        return gapPunishment;
+    }
+
+    /** Returns a copy of the early/late penalties for 8:30, 10:00, 19:00 and 20:30. */
+    public int[] getTimePunishments() {
+        return timePunishments.clone();
+    }
 
+    /**
+     * Returns one early/late penalty.
+     *
+     * @param index 0 for 8:30, 1 for 10:00, 2 for 19:00, 3 for 20:30
+     */
+    public int getTimePunishment(int index) {
+        return timePunishments[index];
+    }
+
+    public boolean getDoLectureOnlyRound() {
+        return doLectureOnlyRound;
+    }
+
+    public double getLectureOnlyWeight() {
+        return lectureOnlyWeight;
+    }
+
+    /** The custom rules, in the order they are listed. */
+    @JsonIgnore
+    public List<ScoringRule> getRules() {
+        return rules;
+    }
+
+    /** Returns a copy of the JSON array the custom rules were created from. */
+    @JsonProperty("rules")
+    public JsonNode getRuleSpecs() {
+        return ruleSpecs.deepCopy();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Config)) return false;
+        Config other = (Config) o;
+        return dayOffReward == other.dayOffReward
+                && gapPunishment == other.gapPunishment
+                && Arrays.equals(timePunishments, other.timePunishments)
+                && doLectureOnlyRound == other.doLectureOnlyRound
+                && Double.compare(lectureOnlyWeight, other.lectureOnlyWeight) == 0
+                && ruleSpecs.equals(other.ruleSpecs);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 31 * dayOffReward + gapPunishment;
+        result = 31 * result + Arrays.hashCode(timePunishments);
+        result = 31 * result + Boolean.hashCode(doLectureOnlyRound);
+        result = 31 * result + Double.hashCode(lectureOnlyWeight);
+        return 31 * result + ruleSpecs.hashCode();
+    }
+}
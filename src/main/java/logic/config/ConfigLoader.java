@@ -4,8 +4,14 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import java.io.File;
 
 public class ConfigLoader {
+    /** Location of the default scoring configuration. */
+    public static final String DEFAULT_PATH = "src/main/java/logic/config/config.json";
+
     private static final ObjectMapper mapper = new ObjectMapper();
 
+    /** Default configuration, read on first use and kept until {@link #reload()}. */
+    private static volatile Config cached;
+
     public static Config load(String path) {
         try {
             return mapper.readValue(new File(path), Config.class);
@@ -13,5 +19,34 @@ public class ConfigLoader {
             throw new RuntimeException("Failed to load config: " + path, e);
         }
     }
-}
 
+    /**
+     * Returns the default configuration, reading it from {@link #DEFAULT_PATH} only once.
+     */
+    public static Config get() {
+        Config config = cached;
+        if (config == null) {
+            synchronized (ConfigLoader.class) {
+                config = cached;
+                if (config == null) {
+                    config = load(DEFAULT_PATH);
+                    cached = config;
+                }
+            }
+        }
+        return config;
+    }
+
+    /**
+     * Re-reads the default configuration, e.g. after {@code config.json} was edited.
+     *
+     * @return the new default configuration
+     */
+    public static Config reload() {
+        synchronized (ConfigLoader.class) {
+            Config config = load(DEFAULT_PATH);
+            cached = config;
+            return config;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package logic.rules;
+
+/**
+ * Asks for a lunch break: every day with classes that has none of the given start times free
+ * earns {@code points} (usually negative). Days off always have a break.
+ */
+public class LunchBreak implements ScoringRule {
+
+    private final int startTimes;
+    private final int points;
+
+    /**
+     * @param startTimes bitmask of the start times that count as a break, bit {@code t} for start time {@code t}
+     * @param points     points for a day without a break
+     */
+    public LunchBreak(int startTimes, int points) {
+        this.startTimes = startTimes;
+        this.points = points;
+    }
+
+    @Override
+    public int dayScore(int bits, boolean lectureOnly) {
+        return bits != 0 && (bits & startTimes) == startTimes ? points : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "lunchBreak(start times " + Integer.toBinaryString(startTimes) + ", " + points + " points)";
+    }
+}
@@ -0,0 +1,30 @@
+package logic.rules;
+
+/**
+ * Caps the number of classes in a day: every start time taken beyond {@code max} earns
+ * {@code points} (usually negative). An extended class counts as two, like it takes two
+ * start times.
+ */
+public class MaxClassesPerDay implements ScoringRule {
+
+    private final int max;
+    private final int points;
+
+    public MaxClassesPerDay(int max, int points) {
+        if (max < 0) {
+            throw new IllegalArgumentException("maxClassesPerDay needs a max of at least 0.");
+        }
+        this.max = max;
+        this.points = points;
+    }
+
+    @Override
+    public int dayScore(int bits, boolean lectureOnly) {
+        return Math.max(0, Integer.bitCount(bits) - max) * points;
+    }
+
+    @Override
+    public String toString() {
+        return "maxClassesPerDay(max " + max + ", " + points + " points)";
+    }
+}
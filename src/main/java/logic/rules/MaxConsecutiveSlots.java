@@ -0,0 +1,37 @@
+package logic.rules;
+
+/**
+ * Penalizes long blocks of back-to-back classes: every day with more than {@code max}
+ * consecutive start times taken earns {@code points} (usually negative).
+ *
+ * <p>Two back-to-back extended labs take four consecutive start times, so {@code max} 3
+ * catches them, along with any other four classes in a row.
+ */
+public class MaxConsecutiveSlots implements ScoringRule {
+
+    private final int max;
+    private final int points;
+
+    public MaxConsecutiveSlots(int max, int points) {
+        if (max < 1) {
+            throw new IllegalArgumentException("maxConsecutiveSlots needs a max of at least 1.");
+        }
+        this.max = max;
+        this.points = points;
+    }
+
+    @Override
+    public int dayScore(int bits, boolean lectureOnly) {
+        // After k steps, bit t is set iff start times t..t+k are all taken
+        int run = bits;
+        for (int k = 0; k < max && run != 0; k++) {
+            run &= run >>> 1;
+        }
+        return run != 0 ? points : 0;
+    }
+
+    @Override
+    public String toString() {
+        return "maxConsecutiveSlots(max " + max + ", " + points + " points)";
+    }
+}
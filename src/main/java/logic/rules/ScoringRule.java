@@ -0,0 +1,26 @@
+package logic.rules;
+
+/**
+ * A custom scoring factor, added to the built-in days off, gaps and early/late factors of a
+ * {@link logic.config.Config}.
+ *
+ * <p>A rule scores one day at a time from the day's occupancy alone, and must always return
+ * the same points for the same arguments. That is what lets {@link logic.OccupancyScorer}
+ * fold every active rule into its per-day tables once per configuration: a schedule is then
+ * scored with the same five lookups however many rules there are.
+ *
+ * <p>Rules are created from JSON by {@link ScoringRules}, where new types can be registered.
+ */
+public interface ScoringRule {
+
+    /**
+     * Points for one day (higher = better).
+     *
+     * @param bits        the day's occupancy, bit {@code t} set if start time {@code t} is taken
+     *                    (see {@link model.TimeSlot#dayBits}); an extended class
+     *                    takes two, and a day off is 0
+     * @param lectureOnly whether this is the lecture-only round, where {@code bits} only holds lectures
+     * @return points added to the schedule's score for this day
+     */
+    int dayScore(int bits, boolean lectureOnly);
+}
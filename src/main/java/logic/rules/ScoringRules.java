@@ -0,0 +1,129 @@
+package logic.rules;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import model.TimeSlot;
+
+/**
+ * Registry of {@link ScoringRule} types, creating rules from their JSON description.
+ *
+ * <p>Rules are listed under {@code "rules"} in {@code config.json}, each an object naming its
+ * {@code type} plus the type's own fields:
+ * <pre>
+ * "rules": [
+ *   {"type": "maxClassesPerDay", "max": 3, "points": -2},
+ *   {"type": "lunchBreak", "startTimes": [2, 3], "points": -1},
+ *   {"type": "maxConsecutiveSlots", "max": 3, "points": -2}
+ * ]
+ * </pre>
+ *
+ * <p>The three types above are built in. Others can be added with {@link #register} before
+ * any configuration using them is loaded.
+ */
+public final class ScoringRules {
+
+    private static final Map<String, Function<JsonNode, ScoringRule>> factories = new ConcurrentHashMap<>();
+
+    static {
+        register("maxClassesPerDay", spec -> new MaxClassesPerDay(
+                intField(spec, "max"), intField(spec, "points")));
+        register("lunchBreak", spec -> new LunchBreak(
+                startTimes(spec, "startTimes"), intField(spec, "points")));
+        register("maxConsecutiveSlots", spec -> new MaxConsecutiveSlots(
+                intField(spec, "max"), intField(spec, "points")));
+    }
+
+    private ScoringRules() {
+    }
+
+    /**
+     * Registers a rule type, replacing any type with the same name.
+     *
+     * @param type    the name used as {@code "type"} in JSON
+     * @param factory creates a rule from its JSON object, throwing
+     *                {@link IllegalArgumentException} if the object is invalid
+     */
+    public static void register(String type, Function<JsonNode, ScoringRule> factory) {
+        factories.put(type, factory);
+    }
+
+    /** Names of the registered rule types, sorted. */
+    public static Set<String> types() {
+        return Collections.unmodifiableSet(new TreeSet<>(factories.keySet()));
+    }
+
+    /**
+     * Creates the rules described by a JSON array.
+     *
+     * @param specs the array, or null for no rules
+     * @return the rules, in order
+     * @throws IllegalArgumentException if a rule is invalid or of an unknown type
+     */
+    public static List<ScoringRule> create(JsonNode specs) {
+        if (specs == null || specs.isNull()) {
+            return List.of();
+        }
+        if (!specs.isArray()) {
+            throw new IllegalArgumentException("\"rules\" must be an array.");
+        }
+        List<ScoringRule> rules = new ArrayList<>(specs.size());
+        for (JsonNode spec : specs) {
+            rules.add(createRule(spec));
+        }
+        return Collections.unmodifiableList(rules);
+    }
+
+    private static ScoringRule createRule(JsonNode spec) {
+        JsonNode type = spec.get("type");
+        if (type == null || !type.isTextual()) {
+            throw new IllegalArgumentException("Every rule needs a \"type\".");
+        }
+        Function<JsonNode, ScoringRule> factory = factories.get(type.asText());
+        if (factory == null) {
+            throw new IllegalArgumentException("Unknown rule type: " + type.asText() + " (known: " + types() + ")");
+        }
+        return factory.apply(spec);
+    }
+
+    /**
+     * Reads a required integer field of a rule.
+     *
+     * @throws IllegalArgumentException if the field is missing or not an integer
+     */
+    public static int intField(JsonNode spec, String name) {
+        JsonNode value = spec.get(name);
+        if (value == null || !value.canConvertToInt()) {
+            throw new IllegalArgumentException("Rule " + spec.get("type").asText() + " needs an integer \"" + name + "\".");
+        }
+        return value.asInt();
+    }
+
+    /**
+     * Reads a required array of start times (0 for 8:30 to 8 for 20:30) as a day bitmask.
+     *
+     * @throws IllegalArgumentException if the field is missing, empty or holds an invalid start time
+     */
+    public static int startTimes(JsonNode spec, String name) {
+        JsonNode values = spec.get(name);
+        if (values == null || !values.isArray() || values.isEmpty()) {
+            throw new IllegalArgumentException("Rule " + spec.get("type").asText() + " needs start times in \"" + name + "\".");
+        }
+        int bits = 0;
+        for (JsonNode value : values) {
+            if (!value.canConvertToInt() || value.asInt() < 0 || value.asInt() >= TimeSlot.SLOTS_PER_DAY) {
+                throw new IllegalArgumentException("Invalid start time in \"" + name + "\": " + value);
+            }
+            bits |= 1 << value.asInt();
+        }
+        return bits;
+    }
+}
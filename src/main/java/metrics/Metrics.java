@@ -0,0 +1,270 @@
+package metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import model.Course;
+
+/**
+ * Process-wide counters and phase timings for the scheduling hot paths.
+ *
+ * <p>Every counter is a {@link LongAdder}, so threads update them without contending. Hot
+ * loops count locally and add their totals once per call rather than once per iteration.
+ * The values can be read over JMX (see {@link #registerMBean()}) or written as JSON when the
+ * JVM exits (see {@link #dumpAtExit(String)}).
+ */
+public final class Metrics implements MetricsMBean {
+
+    public static final String OBJECT_NAME = "course.scheduler:type=Metrics";
+
+    /** Stages of producing ranked schedules, timed separately. */
+    public enum Phase {
+        /** Reading a catalog. */
+        LOAD,
+        /** Expanding the options of courses. */
+        EXPAND,
+        /** Combining options into schedules, including the searches that score as they go. */
+        COMBINE,
+        /** Scoring complete schedules. */
+        SCORE,
+        /** Ordering scored schedules. */
+        SORT,
+        /** Displaying or serializing schedules. */
+        RENDER
+    }
+
+    private static final Metrics INSTANCE = new Metrics();
+    private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private static final LongAdder coursesExpanded = new LongAdder();
+    private static final LongAdder optionsExpanded = new LongAdder();
+    private static final LongAdder overlapChecks = new LongAdder();
+    private static final LongAdder combinationsGenerated = new LongAdder();
+    private static final LongAdder combinationsPruned = new LongAdder();
+    private static final LongAdder scoreEvaluations = new LongAdder();
+    private static final LongAdder[] phaseNanos = adders(Phase.values().length);
+    private static final LongAdder[] phaseCalls = adders(Phase.values().length);
+    /** Option count of each course, the last time it was expanded. */
+    private static final Map<String, Integer> optionCounts = new ConcurrentHashMap<>();
+
+    private static volatile boolean registered;
+
+    private Metrics() {
+    }
+
+    private static LongAdder[] adders(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    /** Starts timing a phase; pass the result to {@link #stop}. */
+    public static long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Adds the time since {@code start} to a phase.
+     *
+     * @param phase the phase
+     * @param start the value returned by {@link #start()}
+     */
+    public static void stop(Phase phase, long start) {
+        phaseNanos[phase.ordinal()].add(System.nanoTime() - start);
+        phaseCalls[phase.ordinal()].increment();
+    }
+
+    /** Records that the options of a course were expanded. */
+    public static void recordOptions(Course course, int options) {
+        coursesExpanded.increment();
+        optionsExpanded.add(options);
+        optionCounts.put(course.getDisplayName(), options);
+    }
+
+    /** Adds pairs of options or schedules tested for overlap. */
+    public static void addOverlapChecks(long checks) {
+        overlapChecks.add(checks);
+    }
+
+    /**
+     * Adds combinations built and combinations dropped, because of an overlap or because
+     * their bound showed they could not be among the results.
+     */
+    public static void addCombinations(long generated, long pruned) {
+        combinationsGenerated.add(generated);
+        combinationsPruned.add(pruned);
+    }
+
+    /** Adds complete schedules scored. */
+    public static void addScoreEvaluations(long evaluations) {
+        scoreEvaluations.add(evaluations);
+    }
+
+    /** Total time spent in a phase, in milliseconds. */
+    public static long millis(Phase phase) {
+        return TimeUnit.NANOSECONDS.toMillis(phaseNanos[phase.ordinal()].sum());
+    }
+
+    /**
+     * Makes the metrics readable over JMX under {@value #OBJECT_NAME}. Does nothing if they
+     * are already registered.
+     */
+    public static synchronized void registerMBean() {
+        if (registered) return;
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName name = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(name)) {
+                server.registerMBean(INSTANCE, name);
+            }
+            registered = true;
+        } catch (JMException e) {
+            throw new IllegalStateException("Failed to register metrics MBean.", e);
+        }
+    }
+
+    /**
+     * Writes the metrics as JSON to a file when the JVM exits.
+     *
+     * @param path the file to write
+     */
+    public static void dumpAtExit(String path) {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            try {
+                mapper.writeValue(new File(path), snapshot());
+            } catch (IOException e) {
+                System.err.println("Failed to write metrics to " + path + ": " + e.getMessage());
+            }
+        }, "metrics-dump"));
+    }
+
+    /** Current values, as a JSON object. */
+    public static ObjectNode snapshot() {
+        ObjectNode root = mapper.createObjectNode();
+        root.put("coursesExpanded", coursesExpanded.sum());
+        root.put("optionsExpanded", optionsExpanded.sum());
+        root.put("overlapChecks", overlapChecks.sum());
+        root.put("combinationsGenerated", combinationsGenerated.sum());
+        root.put("combinationsPruned", combinationsPruned.sum());
+        root.put("scoreEvaluations", scoreEvaluations.sum());
+
+        ObjectNode phases = root.putObject("phases");
+        for (Phase phase : Phase.values()) {
+            ObjectNode node = phases.putObject(phase.name().toLowerCase());
+            node.put("millis", millis(phase));
+            node.put("calls", phaseCalls[phase.ordinal()].sum());
+        }
+
+        ObjectNode options = root.putObject("optionsPerCourse");
+        new TreeMap<>(optionCounts).forEach(options::put);
+        return root;
+    }
+
+    /** Sets every counter and timing back to zero. */
+    public static void resetAll() {
+        coursesExpanded.reset();
+        optionsExpanded.reset();
+        overlapChecks.reset();
+        combinationsGenerated.reset();
+        combinationsPruned.reset();
+        scoreEvaluations.reset();
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i].reset();
+            phaseCalls[i].reset();
+        }
+        optionCounts.clear();
+    }
+
+    // MBean attributes
+
+    @Override
+    public long getCoursesExpanded() {
+        return coursesExpanded.sum();
+    }
+
+    @Override
+    public long getOptionsExpanded() {
+        return optionsExpanded.sum();
+    }
+
+    @Override
+    public long getOverlapChecks() {
+        return overlapChecks.sum();
+    }
+
+    @Override
+    public long getCombinationsGenerated() {
+        return combinationsGenerated.sum();
+    }
+
+    @Override
+    public long getCombinationsPruned() {
+        return combinationsPruned.sum();
+    }
+
+    @Override
+    public long getScoreEvaluations() {
+        return scoreEvaluations.sum();
+    }
+
+    @Override
+    public long getLoadMillis() {
+        return millis(Phase.LOAD);
+    }
+
+    @Override
+    public long getExpandMillis() {
+        return millis(Phase.EXPAND);
+    }
+
+    @Override
+    public long getCombineMillis() {
+        return millis(Phase.COMBINE);
+    }
+
+    @Override
+    public long getScoreMillis() {
+        return millis(Phase.SCORE);
+    }
+
+    @Override
+    public long getSortMillis() {
+        return millis(Phase.SORT);
+    }
+
+    @Override
+    public long getRenderMillis() {
+        return millis(Phase.RENDER);
+    }
+
+    @Override
+    public String getJson() {
+        try {
+            return mapper.writeValueAsString(snapshot());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize metrics.", e);
+        }
+    }
+
+    @Override
+    public void reset() {
+        resetAll();
+    }
+}
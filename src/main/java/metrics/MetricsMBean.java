@@ -0,0 +1,37 @@
+package metrics;
+
+/**
+ * JMX view of {@link Metrics}, registered as {@value Metrics#OBJECT_NAME}.
+ */
+public interface MetricsMBean {
+
+    long getCoursesExpanded();
+
+    long getOptionsExpanded();
+
+    long getOverlapChecks();
+
+    long getCombinationsGenerated();
+
+    long getCombinationsPruned();
+
+    long getScoreEvaluations();
+
+    long getLoadMillis();
+
+    long getExpandMillis();
+
+    long getCombineMillis();
+
+    long getScoreMillis();
+
+    long getSortMillis();
+
+    long getRenderMillis();
+
+    /** All counters and timings as JSON, including the option count of every course. */
+    String getJson();
+
+    /** Sets every counter and timing back to zero. */
+    void reset();
+}
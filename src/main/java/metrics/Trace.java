@@ -0,0 +1,261 @@
+package metrics;
+
+import java.io.BufferedOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import metrics.Metrics.Phase;
+
+/**
+ * Structured event trace of the scheduling hot loops, written as JSON Lines.
+ *
+ * <p>Events are a type plus a few numbers, copied into a preallocated ring buffer: recording
+ * one builds no string and takes no lock. A background thread drains the buffer to the
+ * trace file, one object per line:
+ * <pre>
+ * {"t": 18230411, "thread": 1, "phase": "combine", "event": "pair", "course": 2, "option": 0, "schedule": 5, "overlap": 1}
+ * </pre>
+ * {@code t} is in nanoseconds since the trace started. When the buffer is full, events are
+ * dropped rather than slowing the loops down, and the number dropped is written at the end.
+ *
+ * <p>Only the phases passed to {@link #start} are traced, and with a sample rate of N only
+ * about one event in N is kept. Hot loops check {@link #on(Phase)} once before they start,
+ * so with tracing off they pay a single field read per call.
+ */
+public final class Trace {
+
+    /** Kinds of events, with the phase they belong to and the names of their numbers. */
+    public enum Event {
+        /** The options of a course were expanded. */
+        COURSE(Phase.EXPAND, "course", "options"),
+        /** A course option was tested against a schedule built so far (overlap 1 or 0). */
+        PAIR(Phase.COMBINE, "course", "option", "schedule", "overlap"),
+        /** The schedules built so far after adding a course. */
+        COMBINED(Phase.COMBINE, "course", "schedules"),
+        /** One scoring round of a schedule (lectureOnly 1 for the lecture-only round) and its points per factor. */
+        SCORE(Phase.SCORE, "lectureOnly", "daysOff", "gaps", "earlyLate", "rules", "score"),
+        /** The regular and lecture-only scores of a schedule, and their blend. */
+        BLEND(Phase.SCORE, "score", "lectureOnlyScore", "total");
+
+        private final Phase phase;
+        private final String[] fields;
+
+        Event(Phase phase, String... fields) {
+            this.phase = phase;
+            this.fields = fields;
+        }
+
+        public Phase getPhase() {
+            return phase;
+        }
+    }
+
+    public static final int DEFAULT_CAPACITY = 1 << 16;
+    private static final int ARGS = 6;
+    private static final Event[] EVENTS = Event.values();
+
+    /** Bit per traced phase; 0 when tracing is off. Written before the traced work starts. */
+    private static int phases;
+    private static int sampleRate = 1;
+
+    private static volatile Trace active;
+    private static boolean shutdownHook;
+
+    private final int mask;
+    private final long[] times;
+    private final long[] threads;
+    private final int[] events;
+    private final long[] args;
+    /** Sequence number of the event each slot holds, set once the slot is fully written. */
+    private final AtomicLongArray published;
+    private final AtomicLong head = new AtomicLong();
+    private volatile long tail;
+    private final LongAdder dropped = new LongAdder();
+    private final long origin = System.nanoTime();
+
+    private final String path;
+    private final Thread writer;
+    private volatile boolean stopping;
+    private volatile IOException failure;
+
+    private Trace(String path, int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("Trace capacity must be a power of two: " + capacity);
+        }
+        this.path = path;
+        mask = capacity - 1;
+        times = new long[capacity];
+        threads = new long[capacity];
+        events = new int[capacity];
+        args = new long[capacity * ARGS];
+        published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            published.set(i, -1L);
+        }
+        writer = new Thread(this::drain, "trace-writer");
+        writer.setDaemon(true);
+    }
+
+    /**
+     * Starts tracing to a file, replacing any trace already running. Call before the traced
+     * work starts; the trace is stopped and flushed when the JVM exits.
+     *
+     * @param path       the JSON Lines file to write
+     * @param traced     the phases to trace
+     * @param sampleRate keep about one event in this many (1 keeps every event)
+     * @param capacity   number of events the buffer holds, a power of two
+     */
+    public static synchronized void start(String path, Set<Phase> traced, int sampleRate, int capacity) {
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("Sample rate must be at least 1: " + sampleRate);
+        }
+        stop();
+        Trace trace = new Trace(path, capacity);
+        int bits = 0;
+        for (Phase phase : traced) {
+            bits |= 1 << phase.ordinal();
+        }
+        active = trace;
+        Trace.sampleRate = sampleRate;
+        trace.writer.start();
+        phases = bits;
+        if (!shutdownHook) {
+            Runtime.getRuntime().addShutdownHook(new Thread(Trace::stop, "trace-stop"));
+            shutdownHook = true;
+        }
+    }
+
+    /** Starts tracing every phase, keeping every event. */
+    public static void start(String path) {
+        start(path, EnumSet.allOf(Phase.class), 1, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Stops tracing, waiting until every recorded event is written. Does nothing if no trace
+     * is running.
+     */
+    public static synchronized void stop() {
+        Trace trace = active;
+        if (trace == null) return;
+        phases = 0;
+        active = null;
+        trace.stopping = true;
+        LockSupport.unpark(trace.writer);
+        try {
+            trace.writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (trace.failure != null) {
+            System.err.println("Failed to write trace to " + trace.path + ": " + trace.failure.getMessage());
+        }
+    }
+
+    /** Whether events of a phase are traced. */
+    public static boolean on(Phase phase) {
+        return (phases & 1 << phase.ordinal()) != 0;
+    }
+
+    public static void record(Event event, long a, long b) {
+        record(event, a, b, 0, 0, 0, 0);
+    }
+
+    public static void record(Event event, long a, long b, long c) {
+        record(event, a, b, c, 0, 0, 0);
+    }
+
+    public static void record(Event event, long a, long b, long c, long d) {
+        record(event, a, b, c, d, 0, 0);
+    }
+
+    /**
+     * Records an event if its phase is traced and it is sampled. Numbers past the event's
+     * field count are ignored.
+     */
+    public static void record(Event event, long a, long b, long c, long d, long e, long f) {
+        Trace trace = active;
+        if (trace == null || !on(event.phase)) return;
+        if (sampleRate > 1 && ThreadLocalRandom.current().nextInt(sampleRate) != 0) return;
+        trace.append(event, a, b, c, d, e, f);
+    }
+
+    private void append(Event event, long a, long b, long c, long d, long e, long f) {
+        long sequence;
+        do {
+            sequence = head.get();
+            if (sequence - tail > mask) {
+                dropped.increment();
+                return;
+            }
+        } while (!head.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) sequence & mask;
+        times[slot] = System.nanoTime() - origin;
+        threads[slot] = Thread.currentThread().getId();
+        events[slot] = event.ordinal();
+        int base = slot * ARGS;
+        args[base] = a;
+        args[base + 1] = b;
+        args[base + 2] = c;
+        args[base + 3] = d;
+        args[base + 4] = e;
+        args[base + 5] = f;
+        published.lazySet(slot, sequence);
+    }
+
+    /** Writes events in sequence order until stopped and empty. */
+    private void drain() {
+        try (JsonGenerator gen = new JsonFactory().createGenerator(new BufferedOutputStream(new FileOutputStream(path)))) {
+            gen.setRootValueSeparator(null);
+            long next = 0;
+            while (true) {
+                int slot = (int) next & mask;
+                if (published.get(slot) == next) {
+                    write(gen, slot);
+                    published.lazySet(slot, -1L);
+                    tail = ++next;
+                } else if (stopping && head.get() == next) {
+                    break;
+                } else {
+                    if (!stopping) gen.flush();
+                    LockSupport.parkNanos(100_000L);
+                }
+            }
+            long lost = dropped.sum();
+            if (lost > 0) {
+                gen.writeStartObject();
+                gen.writeStringField("event", "dropped");
+                gen.writeNumberField("count", lost);
+                gen.writeEndObject();
+                gen.writeRaw('\n');
+            }
+        } catch (IOException e) {
+            failure = e;
+            phases = 0;
+        }
+    }
+
+    private void write(JsonGenerator gen, int slot) throws IOException {
+        Event event = EVENTS[events[slot]];
+        gen.writeStartObject();
+        gen.writeNumberField("t", times[slot]);
+        gen.writeNumberField("thread", threads[slot]);
+        gen.writeStringField("phase", event.phase.name().toLowerCase());
+        gen.writeStringField("event", event.name().toLowerCase());
+        for (int i = 0; i < event.fields.length; i++) {
+            gen.writeNumberField(event.fields[i], args[slot * ARGS + i]);
+        }
+        gen.writeEndObject();
+        gen.writeRaw('\n');
+    }
+}
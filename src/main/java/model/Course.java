@@ -69,6 +69,11 @@ public class Course {
         this.sections.add(section);
     }
 
+    /**
+     * Collects the scheduling options of every section of this course.
+     *
+     * @return the options of all sections, each a {@link SlotList} carrying its occupancy bitmask
+     */
     public List<List<TimeSlot>> getOptions() {
         List<List<TimeSlot>> options = new ArrayList<>();
         for (CourseSection sec : sections) {
@@ -0,0 +1,68 @@
+package model;
+
+/**
+ * Identifies a course by its field and code, e.g. {@code CSI2105}.
+ */
+public final class CourseKey {
+
+    private final Field field;
+    private final int code;
+
+    public CourseKey(Field field, int code) {
+        if (field == null) {
+            throw new IllegalArgumentException("Course field is required.");
+        }
+        this.field = field;
+        this.code = code;
+    }
+
+    /**
+     * Parses a course name such as {@code "CSI2105"} (case-insensitive, spaces allowed).
+     *
+     * @param name the field abbreviation followed by the code
+     * @return the key
+     * @throws IllegalArgumentException if the name is not a known field followed by a number
+     */
+    public static CourseKey parse(String name) {
+        String compact = name.replace(" ", "").toUpperCase();
+        if (compact.length() < 4) {
+            throw new IllegalArgumentException("Invalid course name: " + name);
+        }
+        try {
+            return new CourseKey(Field.valueOf(compact.substring(0, 3)), Integer.parseInt(compact.substring(3)));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid course name: " + name, e);
+        }
+    }
+
+    /** Returns the key of a course. */
+    public static CourseKey of(Course course) {
+        return new CourseKey(course.getField(), course.getCode());
+    }
+
+    public Field getField() {
+        return field;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CourseKey)) return false;
+        CourseKey other = (CourseKey) o;
+        return field == other.field && code == other.code;
+    }
+
+    @Override
+    public int hashCode() {
+        return field.hashCode() * 31 + code;
+    }
+
+    @Override
+    public String toString() {
+        return field.toString() + code;
+    }
+}
@@ -91,39 +91,41 @@ public class CourseSection {
         this.tutorialOptions.add(tut);
     }
 
+    /**
+     * Generates every non-overlapping combination of this section's lectures with
+     * one laboratory option and one tutorial option (when those exist).
+     *
+     * <p>Each option is a {@link SlotList}, so its occupancy bitmask is available
+     * for constant-time overlap checks against other options.
+     *
+     * @return the list of scheduling options for this section
+     */
     public List<List<TimeSlot>> getOptions() {
-        List<List<TimeSlot>> options = new ArrayList<>();
-        options.add(new ArrayList<>(lectures));
+        List<SlotList> options = new ArrayList<>();
+        options.add(SlotList.of(lectures));
 
         if (!laboratoryOptions.isEmpty()) {
-            List<List<TimeSlot>> newOptions = new ArrayList<>();
-            for (TimeSlot lab : laboratoryOptions) {
-                for (List<TimeSlot> option : options) {
-                    if (!lab.checkOverlap(option)) {
-                        List<TimeSlot> newOption = new ArrayList<>(option);
-                        newOption.add(lab);
-                        newOptions.add(newOption);
-                    }
-                }
-            }
-            options = newOptions;
+            options = extend(options, laboratoryOptions);
         }
 
         if (!tutorialOptions.isEmpty()) {
-            List<List<TimeSlot>> newOptions = new ArrayList<>();
-            for (TimeSlot tut : tutorialOptions) {
-                for (List<TimeSlot> option : options) {
-                    if (!tut.checkOverlap(option)) {
-                        List<TimeSlot> newOption = new ArrayList<>(option);
-                        newOption.add(tut);
-                        newOptions.add(newOption);
-                    }
+            options = extend(options, tutorialOptions);
+        }
+
+        return new ArrayList<>(options);
+    }
+
+    private static List<SlotList> extend(List<SlotList> options, List<TimeSlot> choices) {
+        List<SlotList> newOptions = new ArrayList<>();
+        for (TimeSlot choice : choices) {
+            long bits = choice.getMask();
+            for (SlotList option : options) {
+                if ((bits & option.getMask()) == 0L) {
+                    newOptions.add(option.with(choice));
                 }
             }
-            options = newOptions;
         }
-
-        return options;
+        return newOptions;
     }
 
     @Override
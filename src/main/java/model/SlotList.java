@@ -0,0 +1,124 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Collection;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of time slots that caches its weekly occupancy bitmask.
+ *
+ * <p>Scheduling options produced by {@link CourseSection#getOptions()} and
+ * {@link Course#getOptions()} are instances of this class, so overlap checks
+ * between them reduce to a single AND of their masks (see {@link TimeSlot#getMask()}
+ * for the bit layout).
+ *
+ * <p>The masks are computed once at construction, so the contained time slots
+ * must not be modified afterwards.
+ */
+public final class SlotList extends AbstractList<TimeSlot> implements RandomAccess {
+
+    private static final SlotList EMPTY = new SlotList(new TimeSlot[0], 0L, 0L, false);
+
+    private final TimeSlot[] slots;
+    private final long mask;
+    private final long lectureMask;
+    private final boolean hasNonLecture;
+
+    private SlotList(TimeSlot[] slots, long mask, long lectureMask, boolean hasNonLecture) {
+        this.slots = slots;
+        this.mask = mask;
+        this.lectureMask = lectureMask;
+        this.hasNonLecture = hasNonLecture;
+    }
+
+    /**
+     * Creates a SlotList holding the given time slots.
+     *
+     * @param slots the time slots, copied in iteration order
+     * @return a SlotList (the argument itself if it already is one)
+     */
+    public static SlotList of(Collection<TimeSlot> slots) {
+        if (slots instanceof SlotList) {
+            return (SlotList) slots;
+        }
+        return build(slots.toArray(new TimeSlot[0]));
+    }
+
+    /** Returns the empty SlotList. */
+    public static SlotList empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Returns a new SlotList containing the slots of {@code first} followed by those of {@code second}.
+     */
+    public static SlotList concat(List<TimeSlot> first, List<TimeSlot> second) {
+        SlotList a = of(first);
+        SlotList b = of(second);
+        TimeSlot[] combined = new TimeSlot[a.slots.length + b.slots.length];
+        System.arraycopy(a.slots, 0, combined, 0, a.slots.length);
+        System.arraycopy(b.slots, 0, combined, a.slots.length, b.slots.length);
+        return new SlotList(combined, a.mask | b.mask, a.lectureMask | b.lectureMask,
+                a.hasNonLecture || b.hasNonLecture);
+    }
+
+    /**
+     * Returns a new SlotList with {@code slot} appended.
+     */
+    public SlotList with(TimeSlot slot) {
+        TimeSlot[] combined = new TimeSlot[slots.length + 1];
+        System.arraycopy(slots, 0, combined, 0, slots.length);
+        combined[slots.length] = slot;
+        boolean lecture = slot.getComp() == Component.LEC;
+        return new SlotList(combined, mask | slot.getMask(),
+                lecture ? lectureMask | slot.getMask() : lectureMask,
+                hasNonLecture || !lecture);
+    }
+
+    private static SlotList build(TimeSlot[] slots) {
+        long mask = 0L;
+        long lectureMask = 0L;
+        boolean hasNonLecture = false;
+        for (TimeSlot slot : slots) {
+            long bits = slot.getMask();
+            mask |= bits;
+            if (slot.getComp() == Component.LEC) {
+                lectureMask |= bits;
+            } else {
+                hasNonLecture = true;
+            }
+        }
+        return new SlotList(slots, mask, lectureMask, hasNonLecture);
+    }
+
+    /** Occupancy of all slots in this list. */
+    public long getMask() {
+        return mask;
+    }
+
+    /** Occupancy of the lecture slots in this list. */
+    public long getLectureMask() {
+        return lectureMask;
+    }
+
+    /** Whether this list contains any lab, tutorial or untyped slot. */
+    public boolean hasNonLecture() {
+        return hasNonLecture;
+    }
+
+    /** Whether any slot of this list overlaps any slot of {@code other}. */
+    public boolean overlaps(SlotList other) {
+        return (mask & other.mask) != 0L;
+    }
+
+    @Override
+    public TimeSlot get(int index) {
+        return slots[index];
+    }
+
+    @Override
+    public int size() {
+        return slots.length;
+    }
+}
@@ -11,6 +11,15 @@ import java.util.List;
  */
 public class TimeSlot {
 
+    /** Number of teaching days in a week (Monday to Friday). */
+    public static final int DAYS = 5;
+
+    /** Number of 1.5-hour start times in a day (8:30 to 20:30). */
+    public static final int SLOTS_PER_DAY = 9;
+
+    /** Bitmask covering the {@link #SLOTS_PER_DAY} bits of one day. */
+    public static final int DAY_MASK = (1 << SLOTS_PER_DAY) - 1;
+
     private int startTime;
     private boolean extended;
     private int day;
@@ -103,36 +112,72 @@ public class TimeSlot {
     public String toString() {
         String[] days = {"Monday", "Tuesday", "Wednesday", "Thursday", "Friday"};
         String[] times = {"8:30", "10:00", "11:30", "13:00", "14:30", "16:00", "17:30", "19:00", "20:30", "22:00"};
-        return days[day] + " " + times[startTime] + "-" + times[startTime + (extended ? 1 : 2)];
+        // An extended slot takes two start times; the week grid ends at 22:00
+        return days[day] + " " + times[startTime] + "-" + times[Math.min(startTime + (extended ? 2 : 1), SLOTS_PER_DAY)];
+    }
+
+    /**
+     * Returns the weekly occupancy of this time slot as a bitmask.
+     *
+     * <p>Bit {@code day * SLOTS_PER_DAY + startTime} is set for the starting slot, and
+     * the following bit as well when the slot is extended. An extended slot starting
+     * at 20:30 only occupies its first bit, since the week grid ends at 22:00.
+     *
+     * @return the occupancy bitmask (45 significant bits)
+     */
+    public long getMask() {
+        long bits = extended && startTime + 1 < SLOTS_PER_DAY ? 0b11L : 0b1L;
+        return bits << (day * SLOTS_PER_DAY + startTime);
+    }
+
+    /**
+     * Returns the combined occupancy bitmask of a list of time slots.
+     *
+     * @param slots the time slots
+     * @return the OR of every slot's {@link #getMask()}
+     */
+    public static long maskOf(List<TimeSlot> slots) {
+        if (slots instanceof SlotList) {
+            return ((SlotList) slots).getMask();
+        }
+        long mask = 0L;
+        for (TimeSlot t : slots) {
+            mask |= t.getMask();
+        }
+        return mask;
+    }
+
+    /**
+     * Extracts the {@link #SLOTS_PER_DAY} occupancy bits of one day from a weekly mask.
+     *
+     * @param mask the weekly occupancy bitmask
+     * @param day  the day, from 0 (Monday) to 4 (Friday)
+     * @return the day's occupancy, bit {@code t} set if start time {@code t} is taken
+     */
+    public static int dayBits(long mask, int day) {
+        return (int) (mask >>> (day * SLOTS_PER_DAY)) & DAY_MASK;
     }
 
     public boolean checkOverlap(TimeSlot other) {
-        if (this.day != other.getDay()) return false;
-        int diff = this.startTime - other.getStartTime();
-        return diff == 0 || (diff == 1 && other.getExtended()) || (diff == -1 && this.extended);
+        return (getMask() & other.getMask()) != 0L;
     }
 
     public boolean checkOverlap(List<TimeSlot> others) {
-        for (TimeSlot t : others) {
-            if (this.checkOverlap(t)) return true;
-        }
-        return false;
+        return (getMask() & maskOf(others)) != 0L;
     }
 
     /**
      * Checks whether any TimeSlot in the first list overlaps with any TimeSlot
      * in the second list.
      *
+     * <p>Both lists are reduced to their occupancy bitmasks, which are cached when
+     * the lists are {@link SlotList}s, so the check is a single AND.
+     *
      * @param o1 the first list of TimeSlot objects
      * @param o2 the second list of TimeSlot objects
      * @return true if any TimeSlot in o1 overlaps with any in o2; false otherwise
      */
     public static boolean checkOverlap(List<TimeSlot> o1, List<TimeSlot> o2) {
-        for (TimeSlot t : o1) {
-            if (t.checkOverlap(o2)) {
-                return true;
-            }
-        }
-        return false;
+        return (maskOf(o1) & maskOf(o2)) != 0L;
     }
 }
@@ -0,0 +1,84 @@
+package output;
+
+import logic.RankedSchedule;
+import model.TimeSlot;
+
+/**
+ * Renders schedules as one static HTML page: a heading per section and a table per schedule,
+ * with extended classes spanning two rows.
+ */
+public class HtmlExporter extends ScheduleExporter {
+
+    @Override
+    public String extension() {
+        return "html";
+    }
+
+    @Override
+    public void header(StringBuilder out) {
+        out.append("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n<title>Schedules</title>\n<style>\n")
+           .append("body { font-family: sans-serif; }\n")
+           .append("table { border-collapse: collapse; margin-bottom: 1.5em; }\n")
+           .append("th, td { border: 1px solid #999; padding: 2px 6px; min-width: 7em; }\n")
+           .append("td.LEC { background: #dde8f6; } td.LAB { background: #e4f3dc; } td.TUT { background: #f8ecd4; }\n")
+           .append("</style>\n</head>\n<body>\n");
+    }
+
+    @Override
+    public void section(StringBuilder out, String title) {
+        escape(out.append("<h2>"), title).append("</h2>\n");
+    }
+
+    @Override
+    public void schedule(StringBuilder out, int rank, RankedSchedule schedule) {
+        fillGrid(schedule.getSchedule());
+        out.append("<h3>Option ").append(rank).append(" (score ").append(schedule.getScore()).append(")</h3>\n");
+        out.append("<table>\n<tr><th>Time</th>");
+        for (String day : DAY_NAMES) {
+            out.append("<th>").append(day).append("</th>");
+        }
+        out.append("</tr>\n");
+
+        for (int t = 0; t < TimeSlot.SLOTS_PER_DAY; t++) {
+            out.append("<tr><th>").append(TIME_LABELS[t]).append("</th>");
+            for (int day = 0; day < TimeSlot.DAYS; day++) {
+                TimeSlot slot = grid[day][t];
+                if (slot == null) {
+                    out.append("<td></td>");
+                } else if (slot.getStartTime() == t) {
+                    // The second half of an extended class is covered by this cell's rowspan
+                    out.append("<td class=\"").append(slot.getComp()).append('"');
+                    if (endIndex(slot) - t > 1) out.append(" rowspan=\"2\"");
+                    escape(out.append('>'), slot.getCourseName()).append(' ').append(slot.getComp()).append("</td>");
+                }
+            }
+            out.append("</tr>\n");
+        }
+        out.append("</table>\n");
+    }
+
+    @Override
+    public void error(StringBuilder out, String message) {
+        escape(out.append("<p>Error: "), message).append("</p>\n");
+    }
+
+    @Override
+    public void footer(StringBuilder out) {
+        out.append("</body>\n</html>\n");
+    }
+
+    private static StringBuilder escape(StringBuilder out, String text) {
+        if (text == null) return out;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '&' -> out.append("&amp;");
+                case '"' -> out.append("&quot;");
+                default -> out.append(c);
+            }
+        }
+        return out;
+    }
+}
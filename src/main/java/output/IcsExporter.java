@@ -0,0 +1,139 @@
+package output;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+import logic.RankedSchedule;
+import model.TimeSlot;
+
+/**
+ * Renders each schedule as an iCalendar ({@code .ics}) calendar: one weekly recurring event
+ * per class, from the first matching day of the term for the given number of weeks. Times are
+ * floating local times, so calendars show them at the stated hour wherever they are opened.
+ * Lines longer than 75 octets, e.g. for long course or student names, are folded.
+ *
+ * <p>Calendar applications expect one calendar per file, so batch mode writes every schedule
+ * to its own file; {@link #section} only sets the name used in event ids.
+ */
+public class IcsExporter extends ScheduleExporter {
+
+    private static final String CRLF = "\r\n";
+    /** Longest line, in octets, and what breaks a longer one (RFC 5545, 3.1). */
+    private static final int MAX_OCTETS = 75;
+    private static final String FOLD = CRLF + " ";
+    /** Minutes after midnight each slot starts at, and the end of the last one. */
+    private static final int[] MINUTES = {510, 600, 690, 780, 870, 960, 1050, 1140, 1230, 1320};
+
+    private final LocalDate[] firstDays = new LocalDate[TimeSlot.DAYS];
+    private final int weeks;
+    private final String stamp;
+    private String name = "schedule";
+
+    /**
+     * @param termStart first day of the term; classes start on the first matching weekday from it
+     * @param weeks     number of weeks classes repeat for
+     */
+    public IcsExporter(LocalDate termStart, int weeks) {
+        if (weeks < 1) {
+            throw new IllegalArgumentException("A term needs at least one week.");
+        }
+        for (int day = 0; day < TimeSlot.DAYS; day++) {
+            firstDays[day] = termStart.with(TemporalAdjusters.nextOrSame(DayOfWeek.of(day + 1)));
+        }
+        this.weeks = weeks;
+        // A fixed stamp keeps exports of the same schedules identical
+        this.stamp = String.format("%04d%02d%02dT000000Z", termStart.getYear(), termStart.getMonthValue(), termStart.getDayOfMonth());
+    }
+
+    @Override
+    public String extension() {
+        return "ics";
+    }
+
+    @Override
+    public void section(StringBuilder out, String title) {
+        name = title;
+    }
+
+    @Override
+    public void schedule(StringBuilder out, int rank, RankedSchedule schedule) {
+        out.append("BEGIN:VCALENDAR").append(CRLF)
+           .append("VERSION:2.0").append(CRLF)
+           .append("PRODID:-//course-scheduler//EN").append(CRLF);
+        int line = out.length();
+        text(out.append("X-WR-CALNAME:"), name).append(" option ").append(rank);
+        endLine(out, line);
+
+        int index = 0;
+        for (TimeSlot slot : schedule.getSchedule()) {
+            LocalDate date = firstDays[slot.getDay()];
+            out.append("BEGIN:VEVENT").append(CRLF);
+            line = out.length();
+            text(out.append("UID:"), name).append('-').append(rank).append('-').append(index++)
+               .append("@course-scheduler");
+            endLine(out, line);
+            out.append("DTSTAMP:").append(stamp).append(CRLF);
+            dateTime(out.append("DTSTART:"), date, MINUTES[slot.getStartTime()]).append(CRLF);
+            dateTime(out.append("DTEND:"), date, MINUTES[endIndex(slot)]).append(CRLF);
+            out.append("RRULE:FREQ=WEEKLY;COUNT=").append(weeks).append(CRLF);
+            line = out.length();
+            text(out.append("SUMMARY:"), slot.getCourseName()).append(' ').append(slot.getComp());
+            endLine(out, line);
+            out.append("END:VEVENT").append(CRLF);
+        }
+        out.append("END:VCALENDAR").append(CRLF);
+    }
+
+    @Override
+    public void error(StringBuilder out, String message) {
+    }
+
+    private static StringBuilder dateTime(StringBuilder out, LocalDate date, int minutes) {
+        out.append(date.getYear());
+        pad2(out, date.getMonthValue());
+        pad2(out, date.getDayOfMonth());
+        out.append('T');
+        pad2(out, minutes / 60);
+        pad2(out, minutes % 60);
+        return out.append("00");
+    }
+
+    /**
+     * Ends the line that starts at {@code start}, folding it so that no line is longer than
+     * {@link #MAX_OCTETS} octets of UTF-8, as RFC 5545 (3.1) requires. A fold never splits a
+     * character.
+     */
+    private static void endLine(StringBuilder out, int start) {
+        int octets = 0;
+        int i = start;
+        while (i < out.length()) {
+            char c = out.charAt(i);
+            boolean pair = Character.isHighSurrogate(c) && i + 1 < out.length();
+            int width = c < 0x80 ? 1 : c < 0x800 ? 2 : pair ? 4 : 3;
+            if (octets + width > MAX_OCTETS) {
+                // The continuation line starts with a space, which counts towards its length
+                out.insert(i, FOLD);
+                i += FOLD.length();
+                octets = 1;
+            }
+            octets += width;
+            i += pair ? 2 : 1;
+        }
+        out.append(CRLF);
+    }
+
+    /** Appends a text value, escaped as iCalendar requires. */
+    private static StringBuilder text(StringBuilder out, String value) {
+        if (value == null) return out;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\', ';', ',' -> out.append('\\').append(c);
+                case '\n' -> out.append("\\n");
+                default -> out.append(c);
+            }
+        }
+        return out;
+    }
+}
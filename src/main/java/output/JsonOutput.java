@@ -0,0 +1,64 @@
+package output;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import logic.RankedSchedule;
+import metrics.Metrics;
+import model.TimeSlot;
+
+/**
+ * Writes ranked schedules as JSON, for the non-interactive front ends.
+ *
+ * <p>A schedule is written as:
+ * <pre>
+ * {"score": 7, "slots": [{"course": "CSI2105A", "component": "LEC", "day": 0, "startTime": 1, "extended": false}, ...]}
+ * </pre>
+ */
+public class JsonOutput {
+
+    /**
+     * Writes one schedule as a JSON object.
+     *
+     * @param gen      the generator
+     * @param schedule the schedule and its score
+     * @throws IOException if writing fails
+     */
+    public static void writeSchedule(JsonGenerator gen, RankedSchedule schedule) throws IOException {
+        gen.writeStartObject();
+        gen.writeNumberField("score", schedule.getScore());
+        gen.writeArrayFieldStart("slots");
+        for (TimeSlot slot : schedule.getSchedule()) {
+            gen.writeStartObject();
+            gen.writeStringField("course", slot.getCourseName());
+            gen.writeStringField("component", slot.getComp() == null ? null : slot.getComp().name());
+            gen.writeNumberField("day", slot.getDay());
+            gen.writeNumberField("startTime", slot.getStartTime());
+            gen.writeBooleanField("extended", slot.getExtended());
+            gen.writeEndObject();
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+
+    /**
+     * Writes a field holding an array of schedules, best first.
+     *
+     * @param gen       the generator, inside an object
+     * @param fieldName name of the field
+     * @param schedules the schedules
+     * @throws IOException if writing fails
+     */
+    public static void writeSchedules(JsonGenerator gen, String fieldName, List<RankedSchedule> schedules)
+            throws IOException {
+        long start = Metrics.start();
+        gen.writeArrayFieldStart(fieldName);
+        for (RankedSchedule schedule : schedules) {
+            writeSchedule(gen, schedule);
+        }
+        gen.writeEndArray();
+        Metrics.stop(Metrics.Phase.RENDER, start);
+    }
+}
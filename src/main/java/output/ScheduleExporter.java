@@ -0,0 +1,96 @@
+package output;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+import logic.RankedSchedule;
+import model.TimeSlot;
+
+/**
+ * Renders ranked schedules in one export format: plain-text timetables, a static HTML page
+ * or iCalendar files.
+ *
+ * <p>A document is a header, then groups of schedules (one per student in batch mode) each
+ * introduced by a section, then a footer. Every part is appended to a {@link StringBuilder}
+ * the caller reuses, so rendering a schedule allocates nothing per cell: names and labels are
+ * appended as they are and numbers are written digit by digit.
+ *
+ * <p>Exporters keep a grid between calls and are not thread-safe; use one per thread.
+ */
+public abstract class ScheduleExporter {
+
+    static final String[] DAY_NAMES = {"Mon", "Tue", "Wed", "Thu", "Fri"};
+    /** Start of every slot, and the end of the last one. */
+    static final String[] TIME_LABELS = {"8:30", "10:00", "11:30", "13:00", "14:30", "16:00", "17:30", "19:00", "20:30", "22:00"};
+
+    /** Slot covering each (day, start time) of the schedule being rendered, both halves of extended slots included. */
+    final TimeSlot[][] grid = new TimeSlot[TimeSlot.DAYS][TimeSlot.SLOTS_PER_DAY];
+
+    /**
+     * Returns the exporter for a format name.
+     *
+     * @param format    {@code text}, {@code html} or {@code ics}
+     * @param termStart first day of the term, for {@code ics}
+     * @param weeks     number of weeks of the term, for {@code ics}
+     * @throws IllegalArgumentException if the format is unknown
+     */
+    public static ScheduleExporter forFormat(String format, LocalDate termStart, int weeks) {
+        return switch (format) {
+            case "text" -> new TextExporter();
+            case "html" -> new HtmlExporter();
+            case "ics" -> new IcsExporter(termStart, weeks);
+            default -> throw new IllegalArgumentException("Unknown export format: " + format + " (known: text, html, ics)");
+        };
+    }
+
+    /** File extension of the format, without the dot. */
+    public abstract String extension();
+
+    /** Appends what comes before the first section. */
+    public void header(StringBuilder out) {
+    }
+
+    /** Appends the start of a group of schedules, e.g. one student's. */
+    public abstract void section(StringBuilder out, String title);
+
+    /**
+     * Appends one schedule.
+     *
+     * @param out      where to append
+     * @param rank     position of the schedule, from 1
+     * @param schedule the schedule and its score
+     */
+    public abstract void schedule(StringBuilder out, int rank, RankedSchedule schedule);
+
+    /** Appends a group that could not be scheduled instead of its schedules. */
+    public abstract void error(StringBuilder out, String message);
+
+    /** Appends what comes after the last section. */
+    public void footer(StringBuilder out) {
+    }
+
+    /** Fills {@link #grid} with a schedule. */
+    void fillGrid(List<TimeSlot> schedule) {
+        for (TimeSlot[] day : grid) {
+            Arrays.fill(day, null);
+        }
+        for (TimeSlot slot : schedule) {
+            grid[slot.getDay()][slot.getStartTime()] = slot;
+            if (slot.getExtended() && slot.getStartTime() + 1 < TimeSlot.SLOTS_PER_DAY) {
+                grid[slot.getDay()][slot.getStartTime() + 1] = slot;
+            }
+        }
+    }
+
+    /** Index of the label a slot ends at; the grid ends at 22:00. */
+    static int endIndex(TimeSlot slot) {
+        return Math.min(slot.getStartTime() + (slot.getExtended() ? 2 : 1), TimeSlot.SLOTS_PER_DAY);
+    }
+
+    /** Appends a number with at least two digits. */
+    static void pad2(StringBuilder out, int value) {
+        if (value < 10) out.append('0');
+        out.append(value);
+    }
+}
@@ -0,0 +1,84 @@
+package output;
+
+import java.util.List;
+
+import logic.RankedSchedule;
+import model.TimeSlot;
+
+/**
+ * Renders schedules as plain-text timetables, one row per start time and one column per day,
+ * the same grid {@link Output} prints to the console.
+ */
+public class TextExporter extends ScheduleExporter {
+
+    private static final int CELL = 12;
+    private static final String RULE = "-".repeat((CELL + 2) * TimeSlot.DAYS + 9);
+
+    @Override
+    public String extension() {
+        return "txt";
+    }
+
+    @Override
+    public void section(StringBuilder out, String title) {
+        out.append("=== ").append(title).append(" ===\n");
+    }
+
+    @Override
+    public void schedule(StringBuilder out, int rank, RankedSchedule schedule) {
+        out.append("\nOption ").append(rank).append(" (score ").append(schedule.getScore()).append(")\n");
+        grid(out, schedule.getSchedule());
+        out.append('\n');
+    }
+
+    @Override
+    public void error(StringBuilder out, String message) {
+        out.append("Error: ").append(message).append("\n\n");
+    }
+
+    /** Appends the timetable of a schedule. */
+    public void grid(StringBuilder out, List<TimeSlot> schedule) {
+        fillGrid(schedule);
+        out.append("Time Slot Schedule:\n").append(RULE).append('\n');
+        pad(out.append("Time"), 4, 8).append(" |");
+        for (String day : DAY_NAMES) {
+            pad(out.append(' ').append(day), day.length(), CELL).append('|');
+        }
+        out.append('\n').append(RULE).append('\n');
+
+        for (int t = 0; t < TimeSlot.SLOTS_PER_DAY; t++) {
+            pad(out.append(TIME_LABELS[t]), TIME_LABELS[t].length(), 8).append(" |");
+            for (int day = 0; day < TimeSlot.DAYS; day++) {
+                out.append(' ');
+                cell(out, grid[day][t]);
+                out.append('|');
+            }
+            out.append('\n').append(RULE).append('\n');
+        }
+    }
+
+    /** Appends a slot's course and component, cut or padded to the cell width. */
+    private static void cell(StringBuilder out, TimeSlot slot) {
+        int written = 0;
+        if (slot != null) {
+            written = append(out, slot.getCourseName(), 0);
+            written = append(out, " ", written);
+            written = append(out, String.valueOf(slot.getComp()), written);
+        }
+        pad(out, written, CELL);
+    }
+
+    /** Appends as much of a string as fits in the cell after {@code written} characters. */
+    private static int append(StringBuilder out, String text, int written) {
+        int n = Math.min(text.length(), CELL - written);
+        out.append(text, 0, n);
+        return written + n;
+    }
+
+    private static StringBuilder pad(StringBuilder out, int written, int width) {
+        for (int i = written; i < width; i++) {
+            out.append(' ');
+        }
+        return out;
+    }
+}
@@ -0,0 +1,242 @@
+package server;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import input.CourseCatalog;
+import input.ScheduleRequest;
+import logic.OccupancyScorer;
+import logic.OptionCache;
+import logic.OptionTable;
+import logic.RankedSchedule;
+import logic.ScheduleSearch;
+import logic.config.Config;
+import logic.config.ConfigLoader;
+import metrics.Metrics;
+import model.Course;
+import output.JsonOutput;
+
+/**
+ * HTTP front end that ranks schedules for many students against one shared catalog.
+ *
+ * <p>The catalog is loaded once and only read afterwards, and the options of requested
+ * courses are kept in a shared {@link OptionCache} between requests. Each request runs on
+ * its own virtual thread when the JVM supports them (Java 21+), and on a fixed pool of
+ * platform threads otherwise. Requests are limited to {@link ScheduleRequest#MAX_COURSES}
+ * courses, so that none can keep a thread busy for long.
+ *
+ * <p>Endpoints:
+ * <ul>
+ *   <li>{@code GET /health}: {@code {"status": "ok", "courses": 1234, "optionCache": {...}}}, with the
+ *       {@link OptionCache} counters</li>
+ *   <li>{@code POST /schedules} with
+ *       {@code {"courses": ["CSI2105", "MAT1341"], "k": 10, "config": {"gapPunishment": 2}}}:
+ *       the K best schedules (see {@link ScheduleRequest} and {@link JsonOutput}).</li>
+ * </ul>
+ */
+public class ScheduleServer {
+
+    public static final int DEFAULT_PORT = 8080;
+    /** Options cached by default, enough for the popular courses of a large catalog. */
+    public static final long DEFAULT_CACHED_OPTIONS = 1L << 20;
+
+    /** Largest accepted request body, in bytes. */
+    private static final int MAX_BODY = 1 << 16;
+    /** Pending connections the socket accepts before refusing new ones. */
+    private static final int BACKLOG = 4096;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final CourseCatalog catalog;
+    private final Config defaults;
+    private final OptionCache options;
+
+    private HttpServer server;
+    private ExecutorService executor;
+
+    public ScheduleServer(CourseCatalog catalog, Config defaults) {
+        this(catalog, defaults, new OptionCache(DEFAULT_CACHED_OPTIONS));
+    }
+
+    /**
+     * @param catalog  the courses students can request
+     * @param defaults configuration for the weights a request does not override
+     * @param options  cache of expanded options, shared by all requests
+     */
+    public ScheduleServer(CourseCatalog catalog, Config defaults, OptionCache options) {
+        this.catalog = catalog;
+        this.defaults = defaults;
+        this.options = options;
+    }
+
+    /**
+     * Starts listening.
+     *
+     * @param port the port, or 0 for any free port
+     * @throws IOException if the port cannot be bound
+     */
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(port), BACKLOG);
+        executor = requestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/health", this::health);
+        server.createContext("/schedules", this::schedules);
+        server.start();
+    }
+
+    /** The port the server listens on. */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests and waits up to the given delay for running ones to finish.
+     *
+     * @param delaySeconds the longest wait
+     */
+    public void stop(int delaySeconds) {
+        server.stop(delaySeconds);
+        executor.shutdown();
+    }
+
+    /** A virtual thread per request when available, otherwise a pool sized for CPU-bound work. */
+    static ExecutorService requestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors() * 2);
+        }
+    }
+
+    private void health(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"GET".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Use GET.");
+                return;
+            }
+            ObjectNode body = mapper.createObjectNode();
+            body.put("status", "ok");
+            body.put("courses", catalog.size());
+            ObjectNode cache = body.putObject("optionCache");
+            cache.put("courses", options.size());
+            cache.put("options", options.getOptions());
+            cache.put("hits", options.getHits());
+            cache.put("misses", options.getMisses());
+            cache.put("evictions", options.getEvictions());
+            send(exchange, 200, mapper.writeValueAsBytes(body));
+        }
+    }
+
+    private void schedules(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!"POST".equals(exchange.getRequestMethod())) {
+                sendError(exchange, 405, "Use POST.");
+                return;
+            }
+            try {
+                byte[] body = readBody(exchange.getRequestBody());
+                if (body == null) {
+                    sendError(exchange, 413, "Request body is larger than " + MAX_BODY + " bytes.");
+                    return;
+                }
+                send(exchange, 200, rank(mapper.readTree(body)));
+            } catch (JsonProcessingException e) {
+                sendError(exchange, 400, e.getOriginalMessage());
+            } catch (IllegalArgumentException e) {
+                sendError(exchange, 400, e.getMessage());
+            } catch (RuntimeException e) {
+                // Details stay in the server's log, not in the response
+                System.err.println("Failed to rank schedules: " + e);
+                e.printStackTrace();
+                sendError(exchange, 500, "Internal error.");
+            }
+        }
+    }
+
+    /** Ranks the schedules for one request and returns the response body. */
+    private byte[] rank(JsonNode json) throws IOException {
+        ScheduleRequest request = ScheduleRequest.fromJson(json, defaults);
+        List<Course> courses = catalog.select(request.getCourses());
+        OptionTable table = options.table(catalog.getVersion(), courses);
+        List<RankedSchedule> best = ScheduleSearch.topK(table, request.getK(), OccupancyScorer.forConfig(request.getConfig()));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart("courses");
+            for (Course course : courses) {
+                gen.writeString(course.getDisplayName());
+            }
+            gen.writeEndArray();
+            gen.writeNumberField("count", best.size());
+            JsonOutput.writeSchedules(gen, "schedules", best);
+            gen.writeEndObject();
+        }
+        return out.toByteArray();
+    }
+
+    /** Reads the whole body, or returns null if it is too large. */
+    private static byte[] readBody(InputStream in) throws IOException {
+        byte[] body = in.readNBytes(MAX_BODY + 1);
+        return body.length > MAX_BODY ? null : body;
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) throws IOException {
+        ObjectNode body = mapper.createObjectNode();
+        body.put("error", message);
+        send(exchange, status, mapper.writeValueAsBytes(body));
+    }
+
+    private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=" + StandardCharsets.UTF_8.name());
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            System.out.println("Usage: ScheduleServer CATALOG [--port N] [--config PATH] [--metrics PATH]");
+            return;
+        }
+        try {
+            int port = DEFAULT_PORT;
+            String configPath = ConfigLoader.DEFAULT_PATH;
+            for (int i = 1; i < args.length; i++) {
+                switch (args[i]) {
+                    case "--port" -> port = Integer.parseInt(args[++i]);
+                    case "--config" -> configPath = args[++i];
+                    case "--metrics" -> Metrics.dumpAtExit(args[++i]);
+                    default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+                }
+            }
+
+            Metrics.registerMBean();
+            CourseCatalog catalog = CourseCatalog.load(args[0]);
+            ScheduleServer server = new ScheduleServer(catalog, ConfigLoader.load(configPath));
+            server.start(port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> server.stop(1)));
+            System.out.println("Serving " + catalog.size() + " courses on port " + server.getPort());
+        } catch (IOException e) {
+            System.out.println("Error starting server: " + e.getMessage());
+        } catch (RuntimeException e) {
+            System.out.println("Invalid arguments: " + e.getMessage());
+        }
+    }
+}
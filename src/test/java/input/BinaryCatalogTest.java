@@ -0,0 +1,53 @@
+package input;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import model.Course;
+import model.CourseSection;
+import model.Field;
+import model.TimeSlot;
+
+class BinaryCatalogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void readsCountsAboveShortRange() throws IOException {
+        // 40000 does not fit a signed short
+        String file = dir.resolve("large.cscb").toString();
+        BinaryCatalog.write(List.of(course(40_000)), file);
+        try (BinaryCatalog catalog = BinaryCatalog.open(file)) {
+            CourseSection section = catalog.getCourse(0).getSections().get(0);
+            assertEquals(40_000, section.getLectures().size());
+            assertEquals(1, section.getLaboratoryOptions().size());
+        }
+    }
+
+    @Test
+    void rejectsCountsAboveUnsignedShortRange() {
+        String file = dir.resolve("too-large.cscb").toString();
+        IOException e = assertThrows(IOException.class, () -> BinaryCatalog.write(List.of(course(70_000)), file));
+        assertEquals("Section CSI1011A has 70000 lectures; a binary catalog holds at most 65535.", e.getMessage());
+    }
+
+    /** One course with one section of the given number of lectures and one lab. */
+    private static Course course(int lectures) {
+        CourseSection section = new CourseSection("A");
+        for (int i = 0; i < lectures; i++) {
+            section.addLecture(new TimeSlot(i % 9, i / 9 % 5, false));
+        }
+        section.addLaboratory(new TimeSlot(0, 0, false));
+        Course course = new Course(Field.CSI, 1011);
+        course.addSection(section);
+        return course;
+    }
+}
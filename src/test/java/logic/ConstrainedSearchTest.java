@@ -0,0 +1,82 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import logic.config.Config;
+import model.Course;
+import model.Field;
+
+class ConstrainedSearchTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void topKMatchesScheduleSearch() throws IOException {
+        // The second config scores every schedule alike, so the order is all ties
+        List<Config> configs = List.of(
+                new Config(3, -1, new int[]{-2, -1, -1, -2}, true, 0.5),
+                new Config(0, 0, new int[]{0, 0, 0, 0}, false, 0));
+        for (List<Course> courses : List.of(TestCatalogs.load("test1.json"), TestCatalogs.load("test2.json"),
+                TestCatalogs.generated(5, 13L, dir))) {
+            OptionTable table = new OptionTable(courses);
+            for (Config config : configs) {
+                OccupancyScorer scorer = new OccupancyScorer(config);
+                for (int k : new int[]{1, 20, 1000}) {
+                    List<RankedSchedule> expected = ScheduleSearch.topK(table, k, scorer);
+                    List<RankedSchedule> actual = new ConstrainedSearch(table).topK(k, scorer);
+                    assertEquals(expected.size(), actual.size());
+                    for (int i = 0; i < expected.size(); i++) {
+                        assertEquals(expected.get(i).getScore(), actual.get(i).getScore(), "rank " + (i + 1));
+                        assertEquals(expected.get(i).getSchedule(), actual.get(i).getSchedule(), "rank " + (i + 1));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void namesOnlyTheConflictingCourses() {
+        // Three courses share two slots; the fourth, assigned first, has a slot of its own
+        Course csi = TestCatalogs.course(Field.CSI, 1011, 0, 1);
+        Course mat = TestCatalogs.course(Field.MAT, 1341, 0, 1);
+        Course phy = TestCatalogs.course(Field.PHY, 1121, 0, 1);
+        Course eng = TestCatalogs.course(Field.ENG, 1100, 2);
+
+        ConstrainedSearch.Result result = new ConstrainedSearch(new OptionTable(List.of(csi, eng, mat, phy))).solve();
+        assertFalse(result.isFeasible());
+        assertFalse(result.isExpired());
+        assertEquals(List.of(csi, mat, phy), result.getConflictingCourses());
+        assertThrows(IllegalStateException.class,
+                () -> ScheduleGenerator.generate(result.getConflictingCourses(), false));
+    }
+
+    @Test
+    void findsScheduleOfFeasibleCatalog() throws IOException {
+        List<Course> courses = TestCatalogs.load("test1.json");
+        OptionTable table = new OptionTable(courses);
+        ConstrainedSearch.Result result = new ConstrainedSearch(table).solve();
+        assertTrue(result.isFeasible());
+        assertTrue(result.getConflictingCourses().isEmpty());
+        assertTrue(ScheduleGenerator.generate(courses, false).contains(table.schedule(result.getChoice())));
+    }
+
+    @Test
+    void givesUpAtPassedDeadline() throws IOException {
+        OptionTable table = new OptionTable(TestCatalogs.load("test1.json"));
+        ConstrainedSearch.Result result = new ConstrainedSearch(table).solve(System.nanoTime() - 1);
+        assertTrue(result.isExpired());
+        assertFalse(result.isFeasible());
+        assertTrue(result.getConflictingCourses().isEmpty());
+    }
+}
@@ -0,0 +1,68 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import logic.config.Config;
+import model.Course;
+import model.SlotList;
+import model.TimeSlot;
+
+class OccupancyScorerTest {
+
+    private static final int[] TIME_PUNISHMENTS = {-2, -1, -1, -2};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void matchesGridScoreOnSampleCatalogs() throws IOException {
+        assertMatchesGrid(TestCatalogs.load("test1.json"));
+        assertMatchesGrid(TestCatalogs.load("test2.json"));
+    }
+
+    @Test
+    void matchesGridScoreOnGeneratedCatalog() throws IOException {
+        assertMatchesGrid(TestCatalogs.generated(4, 7L, dir));
+    }
+
+    @Test
+    void forConfigSharesScorersOfRecentConfigs() {
+        List<OccupancyScorer> scorers = configs().stream().map(OccupancyScorer::forConfig).toList();
+        // Equal configurations, requested again in turn, find their scorers still cached
+        List<Config> again = configs();
+        for (int i = 0; i < again.size(); i++) {
+            assertSame(scorers.get(i), OccupancyScorer.forConfig(again.get(i)));
+        }
+    }
+
+    /** Every schedule scores the same with the tables as with the grid, truncation included. */
+    private static void assertMatchesGrid(List<Course> courses) {
+        List<List<TimeSlot>> schedules = ScheduleGenerator.generate(courses, false);
+        assertFalse(schedules.isEmpty());
+        for (Config config : configs()) {
+            OccupancyScorer scorer = new OccupancyScorer(config);
+            for (List<TimeSlot> schedule : schedules) {
+                assertEquals(ScoringEngine.score(schedule, true, config, false), scorer.score(SlotList.of(schedule)),
+                        () -> "lectureOnlyWeight " + config.getLectureOnlyWeight() + ": " + schedule);
+            }
+        }
+    }
+
+    private static List<Config> configs() {
+        return List.of(
+                new Config(3, -1, TIME_PUNISHMENTS, false, 0.5),
+                new Config(3, -1, TIME_PUNISHMENTS, true, 0.5),
+                new Config(5, -3, TIME_PUNISHMENTS, true, 0.3),
+                new Config(3, -1, TIME_PUNISHMENTS, true, -0.75),
+                new Config(3, -1, TIME_PUNISHMENTS, true, 1.6));
+    }
+}
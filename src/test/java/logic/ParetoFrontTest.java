@@ -0,0 +1,108 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import logic.config.Config;
+import logic.rules.ScoringRule;
+import model.Course;
+import model.SlotList;
+import model.TimeSlot;
+
+class ParetoFrontTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void matchesBruteForceFront() throws IOException {
+        Config plain = new Config(3, -1, new int[]{-2, -1, -1, -2}, true, 0.5);
+        Config ruled = new Config(3, -1, new int[]{-2, -1, -1, -2}, true, 0.5, new ObjectMapper().readTree(
+                "[{\"type\": \"maxClassesPerDay\", \"max\": 2, \"points\": -2},"
+                        + " {\"type\": \"lunchBreak\", \"startTimes\": [2, 3], \"points\": -1}]"));
+        boolean rulesScored = false;
+        for (List<Course> courses : List.of(TestCatalogs.load("test1.json"), TestCatalogs.load("test2.json"),
+                TestCatalogs.generated(5, 13L, dir))) {
+            assertMatchesBruteForce(courses, plain);
+            rulesScored |= assertMatchesBruteForce(courses, ruled);
+        }
+        assertTrue(rulesScored, "no front schedule scored any rule points");
+    }
+
+    /** Returns whether some trade-off on the front has rule points. */
+    private static boolean assertMatchesBruteForce(List<Course> courses, Config config) {
+        // Every distinct factor vector and how many schedules reach it
+        Map<List<Integer>, Long> counts = new HashMap<>();
+        for (List<TimeSlot> schedule : ScheduleGenerator.generate(courses, false)) {
+            counts.merge(factors(SlotList.of(schedule).getMask(), config), 1L, Long::sum);
+        }
+        Map<List<Integer>, Long> expected = new HashMap<>();
+        counts.forEach((vector, count) -> {
+            if (counts.keySet().stream().noneMatch(other -> dominates(other, vector))) expected.put(vector, count);
+        });
+
+        Map<List<Integer>, Long> actual = new HashMap<>();
+        boolean rulesScored = false;
+        for (ParetoFront.Tradeoff tradeoff : ParetoFront.of(courses, config, 1)) {
+            List<Integer> vector = List.of(tradeoff.getFactor(ParetoFront.DAYS_OFF),
+                    tradeoff.getFactor(ParetoFront.GAPS), tradeoff.getFactor(ParetoFront.EARLY_LATE),
+                    tradeoff.getFactor(ParetoFront.RULES));
+            actual.put(vector, tradeoff.getCount());
+            rulesScored |= vector.get(ParetoFront.RULES) != 0;
+        }
+        assertEquals(expected, actual);
+        return rulesScored;
+    }
+
+    /** Factor points of an occupancy, day by day, as the README describes them. */
+    private static List<Integer> factors(long mask, Config config) {
+        int daysOff = 0;
+        int gaps = 0;
+        int earlyLate = 0;
+        int rules = 0;
+        for (int day = 0; day < TimeSlot.DAYS; day++) {
+            int bits = TimeSlot.dayBits(mask, day);
+            for (ScoringRule rule : config.getRules()) {
+                rules += rule.dayScore(bits, false);
+            }
+            if (bits == 0) {
+                daysOff += config.getDayOffReward();
+                continue;
+            }
+            int first = Integer.numberOfTrailingZeros(bits);
+            int last = 31 - Integer.numberOfLeadingZeros(bits);
+            gaps += (last - first + 1 - Integer.bitCount(bits)) * config.getGapPunishment();
+            if (first == 0) {
+                earlyLate += config.getTimePunishment(0);
+            } else if (first == 1) {
+                earlyLate += config.getTimePunishment(1);
+            }
+            if (last == 8) {
+                earlyLate += config.getTimePunishment(3);
+            } else if (last == 7) {
+                earlyLate += config.getTimePunishment(2);
+            }
+        }
+        return List.of(daysOff, gaps, earlyLate, rules);
+    }
+
+    private static boolean dominates(List<Integer> a, List<Integer> b) {
+        boolean better = false;
+        for (int f = 0; f < a.size(); f++) {
+            if (a.get(f) < b.get(f)) return false;
+            better |= a.get(f) > b.get(f);
+        }
+        return better;
+    }
+}
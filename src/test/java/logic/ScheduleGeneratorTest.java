@@ -0,0 +1,56 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import model.Course;
+import model.Field;
+import model.TimeSlot;
+
+class ScheduleGeneratorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void parallelMatchesSequentialOnSampleCatalogs() throws IOException {
+        assertParallelMatches(TestCatalogs.load("test1.json"));
+        assertParallelMatches(TestCatalogs.load("test2.json"));
+    }
+
+    @Test
+    void parallelMatchesSequentialOnGeneratedCatalog() throws IOException {
+        assertParallelMatches(TestCatalogs.generated(4, 7L, dir));
+        // Over 9000 schedules: the last combination steps span several chunks
+        assertParallelMatches(TestCatalogs.sparse(6, 22L, dir));
+    }
+
+    @Test
+    void rejectsCoursesThatCannotBeCombined() {
+        List<Course> courses = List.of(TestCatalogs.course(Field.CSI, 1011, 0),
+                TestCatalogs.course(Field.MAT, 1341, 0));
+        assertThrows(IllegalStateException.class, () -> ScheduleGenerator.generate(courses, false));
+        assertThrows(IllegalStateException.class,
+                () -> ScheduleGenerator.generateParallel(courses, ForkJoinPool.commonPool()));
+    }
+
+    private static void assertParallelMatches(List<Course> courses) {
+        List<List<TimeSlot>> expected = ScheduleGenerator.generate(courses, false);
+        for (int threads : new int[]{1, 4}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                assertEquals(expected, ScheduleGenerator.generateParallel(courses, pool));
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class ScheduleRankerTest {
+
+    @Test
+    void ordersByScoreThenIndex() {
+        int[] scores = {3, 5, 3, 5, 1, Integer.MIN_VALUE, Integer.MAX_VALUE};
+        assertArrayEquals(new int[]{6, 1, 3, 0, 2, 4, 5}, ScheduleRanker.order(scores));
+    }
+
+    @Test
+    void largeOrderMatchesStableSortOnAnyCoreCount() throws Exception {
+        // Few distinct scores, so most schedules tie, and enough of them for the parallel sort
+        SplittableRandom random = new SplittableRandom(3L);
+        int[] scores = random.ints(200_000, -20, 20).toArray();
+        int[] expected = stableOrder(scores);
+
+        assertArrayEquals(expected, ScheduleRanker.order(scores));
+        for (int threads : new int[]{1, 4}) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            try {
+                assertArrayEquals(expected, pool.submit(() -> ScheduleRanker.order(scores)).get());
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    @Test
+    void topIsPrefixOfOrder() {
+        int[] scores = new SplittableRandom(5L).ints(300_000, 0, 50).toArray();
+        int[] order = ScheduleRanker.order(scores);
+        for (int k : new int[]{1, 10, 1000, scores.length}) {
+            assertArrayEquals(Arrays.copyOf(order, k), ScheduleRanker.top(scores, k), "k = " + k);
+        }
+    }
+
+    /** Indices by descending score through a stable sort, so ties keep index order. */
+    private static int[] stableOrder(int[] scores) {
+        return IntStream.range(0, scores.length).boxed()
+                .sorted(Comparator.comparingInt((Integer i) -> scores[i]).reversed())
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+}
@@ -0,0 +1,37 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import logic.config.Config;
+import model.Course;
+import model.TimeSlot;
+
+class ScheduleSearchTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void topKIsPrefixOfFullRanking() throws IOException {
+        assertSearchMatchesRanking(TestCatalogs.load("test1.json"));
+        assertSearchMatchesRanking(TestCatalogs.load("test2.json"));
+        assertSearchMatchesRanking(TestCatalogs.generated(5, 13L, dir));
+    }
+
+    private static void assertSearchMatchesRanking(List<Course> courses) {
+        Config config = new Config(3, -1, new int[]{-2, -1, -1, -2}, true, 0.5);
+        List<List<TimeSlot>> ranked = ScheduleRanker.rank(ScheduleGenerator.generate(courses, false), config, false);
+        List<RankedSchedule> best = ScheduleSearch.topK(courses, 20, config);
+        assertEquals(Math.min(20, ranked.size()), best.size());
+        for (int i = 0; i < best.size(); i++) {
+            assertEquals(ranked.get(i), best.get(i).getSchedule(), "rank " + (i + 1));
+        }
+    }
+}
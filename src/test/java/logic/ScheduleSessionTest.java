@@ -0,0 +1,88 @@
+package logic;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import logic.config.Config;
+import model.Course;
+import model.Field;
+import model.TimeSlot;
+
+class ScheduleSessionTest {
+
+    private static final Config CONFIG = new Config(3, -1, new int[]{-2, -1, -1, -2}, true, 0.5);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void matchesFreshRankingAfterEachEdit() throws IOException {
+        List<Course> catalog = TestCatalogs.generated(5, 13L, dir);
+        ScheduleSession session = new ScheduleSession(CONFIG);
+        for (Course course : catalog) {
+            session.addCourse(course);
+            assertMatchesFreshRanking(session);
+        }
+
+        session.removeCourse(2);
+        assertMatchesFreshRanking(session);
+        session.setConfig(new Config(1, -2, new int[]{-3, 0, 0, -1}, false, 0));
+        assertMatchesFreshRanking(session);
+        session.setConfig(new Config(3, -1, new int[]{-2, -1, -1, -2}, true, 0.5, new ObjectMapper().readTree(
+                "[{\"type\": \"maxClassesPerDay\", \"max\": 2, \"points\": -2}]")));
+        assertMatchesFreshRanking(session);
+        session.removeCourse(session.getCourses().size() - 1);
+        assertMatchesFreshRanking(session);
+        session.removeCourse(0);
+        assertMatchesFreshRanking(session);
+        session.addCourse(catalog.get(2));
+        assertMatchesFreshRanking(session);
+    }
+
+    @Test
+    void infeasibleCourseLeavesNoScheduleUntilRemoved() throws IOException {
+        List<Course> catalog = TestCatalogs.load("test1.json");
+        ScheduleSession session = new ScheduleSession(CONFIG);
+        for (Course course : catalog) {
+            session.addCourse(course);
+        }
+        assertMatchesFreshRanking(session);
+
+        // A second copy of a course overlaps every schedule of the first
+        session.addCourse(catalog.get(0));
+        assertEquals(0, session.size());
+        assertTrue(session.topK(10).isEmpty());
+        assertThrows(IllegalStateException.class, () -> ScheduleGenerator.generate(session.getCourses(), false));
+
+        session.addCourse(TestCatalogs.course(Field.PHI, 1101, 8));
+        assertEquals(0, session.size());
+        session.removeCourse(catalog.size());
+        assertMatchesFreshRanking(session);
+    }
+
+    private static void assertMatchesFreshRanking(ScheduleSession session) {
+        List<List<TimeSlot>> schedules = ScheduleGenerator.generate(session.getCourses(), false);
+        int[] scores = ScheduleRanker.score(schedules, session.getConfig(), false);
+        int[] order = ScheduleRanker.order(scores);
+        assertEquals(order.length, session.size());
+        // The full ranking is cached, so later calls read it back
+        for (int k : new int[]{1, 10, order.length, 10}) {
+            List<RankedSchedule> top = session.topK(k);
+            assertEquals(Math.min(k, order.length), top.size());
+            for (int i = 0; i < top.size(); i++) {
+                assertEquals(scores[order[i]], top.get(i).getScore(), "rank " + (i + 1));
+                assertEquals(schedules.get(order[i]), top.get(i).getSchedule(), "rank " + (i + 1));
+            }
+        }
+    }
+}
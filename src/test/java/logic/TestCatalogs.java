@@ -0,0 +1,82 @@
+package logic;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import input.CatalogGenerator;
+import input.DataLoader;
+import model.Component;
+import model.Course;
+import model.CourseSection;
+import model.Field;
+import model.TimeSlot;
+
+/** Catalogs shared by the tests: the two sample files, seeded synthetic ones and hand-built courses. */
+final class TestCatalogs {
+
+    private TestCatalogs() {
+    }
+
+    static List<Course> load(String resource) throws IOException {
+        return new DataLoader("src/test/resources/" + resource).loadCourses();
+    }
+
+    /**
+     * Generates a catalog with {@link CatalogGenerator} and loads it back.
+     *
+     * @param courses number of courses
+     * @param seed    the generator's seed
+     * @param dir     where to write the catalog
+     */
+    static List<Course> generated(int courses, long seed, Path dir) throws IOException {
+        CatalogGenerator generator = new CatalogGenerator();
+        generator.setCourses(courses);
+        generator.setSeed(seed);
+        return write(generator, "generated-" + courses + "-" + seed, dir);
+    }
+
+    /**
+     * Like {@link #generated}, with one short lecture per section: fewer overlaps, so many
+     * more schedules for the same number of courses.
+     */
+    static List<Course> sparse(int courses, long seed, Path dir) throws IOException {
+        CatalogGenerator generator = new CatalogGenerator();
+        generator.setCourses(courses);
+        generator.setSeed(seed);
+        generator.setLecturesPerSection(1);
+        generator.setExtendedRatio(0);
+        return write(generator, "sparse-" + courses + "-" + seed, dir);
+    }
+
+    /**
+     * A course with one section per start time, each made of a single Monday lecture,
+     * named as {@link DataLoader} names them.
+     *
+     * @param field      the course's field
+     * @param code       the course's code
+     * @param startTimes the start time of each section's lecture
+     */
+    static Course course(Field field, int code, int... startTimes) {
+        Course course = new Course(field, code);
+        for (int s = 0; s < startTimes.length; s++) {
+            CourseSection section = new CourseSection(String.valueOf((char) ('A' + s)));
+            TimeSlot lecture = new TimeSlot(startTimes[s], 0, false);
+            lecture.setCourseName(field.name() + code + section.getName());
+            lecture.setComp(Component.LEC);
+            section.addLecture(lecture);
+            course.addSection(section);
+        }
+        return course;
+    }
+
+    private static List<Course> write(CatalogGenerator generator, String name, Path dir) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        generator.generate(out);
+        Path file = dir.resolve(name + ".json");
+        Files.write(file, out.toByteArray());
+        return new DataLoader(file.toString()).loadCourses();
+    }
+}